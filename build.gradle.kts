@@ -9,6 +9,71 @@ repositories {
     mavenCentral()
 }
 
+// JMH benchmarks live in their own source set (src/jmh/java) so they never ship with the game
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+}
+
 dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// Headless self-play, e.g. ./gradlew simulate --args="1000000 NEGAMAX COMPUTER"
+tasks.register<JavaExec>("simulate") {
+    group = "application"
+    description = "Plays batches of games between two AI players without the GUI."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("me.josh.tictactoe.sim.SelfPlayRunner")
+    // -Plog=games.log records every game
+    providers.gradleProperty("log").orNull?.let { systemProperty("tictactoe.log", file(it).absolutePath) }
+}
+
+// Streams endless AI games to spectators, e.g. ./gradlew broadcast --args="7778 NEGAMAX MCTS 500"
+tasks.register<JavaExec>("broadcast") {
+    group = "application"
+    description = "Streams AI games to any number of spectators."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("me.josh.tictactoe.net.SpectatorServer")
+}
 
-}
\ No newline at end of file
+// Reports on a recorded game log, e.g. ./gradlew analyze --args="games.log 3"
+tasks.register<JavaExec>("analyze") {
+    group = "application"
+    description = "Computes opening, win-rate and blunder statistics over a game log."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("me.josh.tictactoe.analysis.GameLogAnalyzer")
+}
+
+// Solves a position exhaustively, e.g. ./gradlew solve --args="4 4 4" (rows, cols, winLength, then moves)
+tasks.register<JavaExec>("solve") {
+    group = "application"
+    description = "Enumerates and solves the whole game tree below a position."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("me.josh.tictactoe.analysis.GameTreeSolver")
+}
+
+// Runs the JMH benchmarks with the allocation profiler, e.g. ./gradlew jmh --args="GameBenchmark"
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks with GC profiling and writes JSON results."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.absolutePath)
+    })
+    doFirst { results.get().asFile.parentFile.mkdirs() }
+}
+
+// Network game server, e.g. ./gradlew serve --args="7777 NEGAMAX" (omit the AI type to pair clients)
+tasks.register<JavaExec>("serve") {
+    group = "application"
+    description = "Hosts network games over the binary protocol."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("me.josh.tictactoe.net.GameServer")
+    providers.gradleProperty("log").orNull?.let { systemProperty("tictactoe.log", file(it).absolutePath) }
+}
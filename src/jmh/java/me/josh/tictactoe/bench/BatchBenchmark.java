@@ -0,0 +1,82 @@
+package me.josh.tictactoe.bench;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.ai.BatchMoves;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerFactory;
+import me.josh.tictactoe.model.player.PlayerType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares choosing moves for a corpus of 3x3 positions one getMove call at a time
+ * with the batch API. Scores are per position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+    /** Positions per invocation */
+    public static final int POSITIONS = 1 << 16;
+
+    /** Distinct positions in the corpus, repeated to fill the batch */
+    private static final int CORPUS = 1024;
+
+    private Player player;
+    private GameState[] states;
+    private int[] boards;
+    private int[] moves;
+
+    @Setup
+    public void setup() {
+        GameState[] corpus = Positions.states(BoardGeometry.STANDARD, CORPUS);
+        player = PlayerFactory.createPlayer(PlayerType.TABLE, Symbol.X, null);
+        states = new GameState[POSITIONS];
+        boards = new int[POSITIONS];
+        moves = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            states[i] = corpus[i % CORPUS];
+            boards[i] = BatchMoves.pack(states[i]);
+        }
+    }
+
+    /**
+     * One getMove call per position.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void getMoveLoop(Blackhole blackhole) {
+        for (GameState state : states) {
+            blackhole.consume(player.getMove(state));
+        }
+    }
+
+    /**
+     * The batch API on the calling thread only.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int[] batchSequential() {
+        BatchMoves.bestMoves(boards, moves, 0, POSITIONS);
+        return moves;
+    }
+
+    /**
+     * The batch API split across cores.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int[] batchParallel() {
+        BatchMoves.bestMoves(boards, moves);
+        return moves;
+    }
+
+}
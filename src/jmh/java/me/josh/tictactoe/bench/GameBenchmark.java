@@ -0,0 +1,95 @@
+package me.josh.tictactoe.bench;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.TicTacToeGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the game model: making moves, win detection and resetting.
+ * Replays a fixed corpus of random games so each invocation does the same work on every run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    /** Board shapes to measure: the classic board and a large five-in-a-row board */
+    @Param({"3x3x3", "15x15x5"})
+    public String shape;
+
+    private BoardGeometry geometry;
+    private TicTacToeGame game;
+    private int[][] games;
+
+    /** Stones and last-move cells captured from the corpus for the win check benchmark */
+    private long[][] stones;
+    private int[] lastCells;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        geometry = Positions.geometry(shape);
+        game = Positions.newGame(geometry);
+        games = Positions.games(geometry, 1024);
+
+        // Final position of each game, seen from the player who made the last move
+        stones = new long[games.length][];
+        lastCells = new int[games.length];
+        for (int g = 0; g < games.length; g++) {
+            long[] bits = geometry.newBits();
+            int[] moves = games[g];
+            for (int i = moves.length - 1; i >= 0; i -= 2) {
+                BoardGeometry.set(bits, moves[i]);
+            }
+            stones[g] = bits;
+            lastCells[g] = moves[moves.length - 1];
+        }
+    }
+
+    /**
+     * Cycles through the corpus.
+     */
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1 == games.length) ? 0 : index + 1;
+        return index;
+    }
+
+    /**
+     * Replays a whole game: every makeMove, including its validation and win/draw check.
+     */
+    @Benchmark
+    public boolean playGame() {
+        int[] moves = games[nextIndex()];
+        game.reset();
+        for (int cell : moves) {
+            game.makeMove(geometry.row(cell), geometry.col(cell));
+        }
+        return game.gameOver;
+    }
+
+    /**
+     * The win check that makeMove runs after each move.
+     */
+    @Benchmark
+    public boolean checkWin() {
+        int index = nextIndex();
+        return geometry.isWinningCell(stones[index], lastCells[index]);
+    }
+
+    /**
+     * Clearing the board between games.
+     */
+    @Benchmark
+    public TicTacToeGame reset() {
+        game.reset();
+        return game;
+    }
+
+}
@@ -0,0 +1,48 @@
+package me.josh.tictactoe.bench;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerFactory;
+import me.josh.tictactoe.model.player.PlayerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single AI decision over a corpus of representative 3x3 positions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+
+    /** The AI to measure */
+    @Param({"COMPUTER", "NEGAMAX", "TABLE"})
+    public PlayerType type;
+
+    private Player player;
+    private GameState[] states;
+    private int next;
+
+    @Setup
+    public void setup() {
+        states = Positions.states(BoardGeometry.STANDARD, 1024);
+        player = PlayerFactory.createPlayer(type, Symbol.X, null);
+    }
+
+    /**
+     * One call to getMove on the next position of the corpus.
+     */
+    @Benchmark
+    public int getMove() {
+        GameState state = states[next];
+        next = (next + 1 == states.length) ? 0 : next + 1;
+        return player.getMove(state);
+    }
+
+}
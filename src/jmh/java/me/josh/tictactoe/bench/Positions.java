@@ -0,0 +1,103 @@
+package me.josh.tictactoe.bench;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.HumanPlayer;
+
+import java.util.Random;
+
+/**
+ * Deterministic corpus of game positions shared by the benchmarks.
+ * Positions come from random play with a fixed seed, so every run measures the same inputs.
+ */
+final class Positions {
+
+    /** Seed for all generated corpora */
+    private static final long SEED = 20240601L;
+
+    private Positions() {
+    }
+
+    /**
+     * Generates complete random games as sequences of cell indices.
+     *
+     * @param geometry The board shape
+     * @param count The number of games
+     * @return One array of moves per game, ending with the move that finished it
+     */
+    static int[][] games(BoardGeometry geometry, int count) {
+        Random random = new Random(SEED);
+        int[][] games = new int[count][];
+        int[] buffer = new int[geometry.cells];
+
+        for (int g = 0; g < count; g++) {
+            TicTacToeGame game = newGame(geometry);
+            int length = 0;
+            while (!game.gameOver) {
+                int cell = random.nextInt(geometry.cells);
+                if (game.makeMove(geometry.row(cell), geometry.col(cell))) {
+                    buffer[length++] = cell;
+                }
+            }
+
+            int[] moves = new int[length];
+            System.arraycopy(buffer, 0, moves, 0, length);
+            games[g] = moves;
+        }
+        return games;
+    }
+
+    /**
+     * Generates unfinished positions by cutting random games short.
+     * Each position has X to move (an even number of stones), at least one free cell
+     * and no winner, so an X player always has a legal, meaningful move.
+     *
+     * @param geometry The board shape
+     * @param count The number of positions
+     * @return The positions, each held by its own game
+     */
+    static TicTacToeGame[] states(BoardGeometry geometry, int count) {
+        Random random = new Random(SEED);
+        TicTacToeGame[] states = new TicTacToeGame[count];
+
+        for (int i = 0; i < count; i++) {
+            TicTacToeGame game = newGame(geometry);
+            int plies = 2 * random.nextInt(Math.min(geometry.cells - 1, 12) / 2 + 1);
+            int made = 0;
+            while (made < plies) {
+                int cell = random.nextInt(geometry.cells);
+                int row = geometry.row(cell);
+                int col = geometry.col(cell);
+                if (!game.isValidMove(row, col)) continue;
+
+                game.makeMove(row, col);
+                if (game.gameOver) {
+                    // Start over rather than keep a finished position
+                    game.reset();
+                    made = 0;
+                } else {
+                    made++;
+                }
+            }
+            states[i] = game;
+        }
+        return states;
+    }
+
+    /**
+     * Parses a board shape written as "rows x cols x winLength", e.g. "15x15x5".
+     */
+    static BoardGeometry geometry(String shape) {
+        String[] parts = shape.split("x");
+        return BoardGeometry.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+
+    /**
+     * Creates a game between two placeholder players; moves are fed in directly.
+     */
+    static TicTacToeGame newGame(BoardGeometry geometry) {
+        return new TicTacToeGame(new HumanPlayer(Symbol.X, "X"), new HumanPlayer(Symbol.O, "O"), geometry);
+    }
+
+}
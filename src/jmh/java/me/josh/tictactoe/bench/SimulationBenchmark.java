@@ -0,0 +1,47 @@
+package me.josh.tictactoe.bench;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.player.PlayerFactory;
+import me.josh.tictactoe.model.player.PlayerType;
+import me.josh.tictactoe.sim.SelfPlayRunner;
+import me.josh.tictactoe.sim.SimulationResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks complete AI-vs-AI games on one thread, as played by the self-play runner.
+ * Each invocation plays a fixed batch, so the score is time per batch of games.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+
+    /** Games played per invocation */
+    public static final int GAMES = 1000;
+
+    /** The AI playing both sides */
+    @Param({"COMPUTER", "NEGAMAX", "TABLE"})
+    public PlayerType type;
+
+    private SelfPlayRunner runner;
+
+    @Setup
+    public void setup() {
+        runner = new SelfPlayRunner(BoardGeometry.STANDARD,
+                () -> PlayerFactory.createPlayer(type, Symbol.X, null),
+                () -> PlayerFactory.createPlayer(type, Symbol.O, null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public SimulationResult fullGames() {
+        return runner.run(GAMES, 1);
+    }
+
+}
@@ -1,19 +1,43 @@
 package me.josh.tictactoe;
 
 import me.josh.tictactoe.controller.GameController;
+import me.josh.tictactoe.metrics.JmxExporter;
+import me.josh.tictactoe.metrics.MetricsRegistry;
 import me.josh.tictactoe.model.*;
 import me.josh.tictactoe.model.player.*;
+import me.josh.tictactoe.net.GameClient;
 import me.josh.tictactoe.view.GameView;
 
 import javax.swing.*;
+import java.io.IOException;
 
 /**
  * Entry point for the Tic Tac Toe application.
- * Creates and wires together the Model, View, and Controller.
+ * Creates and wires together the Model, View, and Controller.<br>
+ * Optional arguments {@code rows cols winLength} select a larger m,n,k board,
+ * e.g. {@code 15 15 5} for five in a row.
+ * Arguments {@code --connect host port} join a game hosted by a {@code GameServer} instead,
+ * and {@code --watch host port} watch a game streamed by a {@code SpectatorServer}.
  */
 public final class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Metrics can be watched in JConsole while playing
+        new JmxExporter().export(MetricsRegistry.shared());
+
+        if (args.length >= 3 && args[0].equals("--connect")) {
+            playOnline(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        if (args.length >= 3 && args[0].equals("--watch")) {
+            watch(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+
+        BoardGeometry geometry = (args.length >= 3)
+                ? BoardGeometry.of(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]))
+                : BoardGeometry.STANDARD;
+
         // Run on the Event Dispatch Thread for thread safety
         SwingUtilities.invokeLater(() -> {
             // Create players
@@ -21,10 +45,10 @@ public final class Main {
             Player computer = PlayerFactory.createPlayer(PlayerType.COMPUTER, Symbol.O, null);
 
             // Create model
-            TicTacToeGame game = new TicTacToeGame(human, computer);
+            TicTacToeGame game = new TicTacToeGame(human, computer, geometry);
 
             // Create view
-            GameView view = new GameView();
+            GameView view = new GameView(geometry.rows, geometry.cols);
 
             // Create controller (wires model and view together)
             new GameController(game, view);
@@ -34,4 +58,46 @@ public final class Main {
         });
     }
 
-}
+    /**
+     * Connects to a game server and plays the local side through the GUI.
+     *
+     * @param host The server host
+     * @param port The server port
+     * @throws IOException if the connection fails
+     */
+    private static void playOnline(String host, int port) throws IOException {
+        // Server events are applied on the Event Dispatch Thread, like clicks
+        GameClient client = GameClient.connect(host, port,
+                symbol -> PlayerFactory.createPlayer(PlayerType.HUMAN, symbol, "You"),
+                SwingUtilities::invokeLater);
+
+        SwingUtilities.invokeLater(() -> {
+            TicTacToeGame game = client.getGame();
+            GameView view = new GameView(game.geometry.rows, game.geometry.cols);
+            new GameController(game, view);
+            client.start();
+            view.setVisible(true);
+        });
+    }
+
+    /**
+     * Connects to a spectator server and shows its game as it is played.
+     *
+     * @param host The server host
+     * @param port The server port
+     * @throws IOException if the connection fails
+     */
+    private static void watch(String host, int port) throws IOException {
+        GameClient client = GameClient.watch(host, port, SwingUtilities::invokeLater);
+
+        SwingUtilities.invokeLater(() -> {
+            TicTacToeGame game = client.getGame();
+            GameView view = new GameView(game.geometry.rows, game.geometry.cols);
+            view.setTitle("Tic Tac Toe (spectating)");
+            new GameController(game, view);
+            client.start();
+            view.setVisible(true);
+        });
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package me.josh.tictactoe.analysis;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.player.PlayerType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of analysing a game log: overall outcomes, results per player type, opening-tree
+ * frequencies and blunders against perfect play.<br>
+ * Outcomes are indexed by {@link #FIRST_WINS}, {@link #DRAW} and {@link #SECOND_WINS}, from the
+ * point of view of move order; per-type results by {@link #WIN}, {@link #DRAW} and {@link #LOSS}.
+ */
+public final class GameLogAnalysis {
+
+    /** Outcome index: the player who moved first won */
+    public static final int FIRST_WINS = 0;
+
+    /** Outcome and result index: a draw */
+    public static final int DRAW = 1;
+
+    /** Outcome index: the player who moved second won */
+    public static final int SECOND_WINS = 2;
+
+    /** Result index: the player won */
+    public static final int WIN = 0;
+
+    /** Result index: the player lost */
+    public static final int LOSS = 2;
+
+    /** The board shape of the analysed games */
+    public final BoardGeometry geometry;
+
+    /** Number of games analysed */
+    public final long games;
+
+    /** Game counts by outcome */
+    public final long[] outcomes;
+
+    /** Per player type (by ordinal), game counts by result */
+    public final long[][] typeResults;
+
+    /** Per player type (by ordinal), moves checked against perfect play (3x3 only) */
+    public final long[] typeMoves;
+
+    /** Per player type (by ordinal), moves that made the mover's perfect-play result worse (3x3 only) */
+    public final long[] typeBlunders;
+
+    /** Number of opening moves tracked */
+    public final int openingDepth;
+
+    /**
+     * openings[d - 1] holds, for every sequence of d opening moves, the game counts by outcome
+     * at index {@code sequence * 3 + outcome}, where the sequence is read as a base-{@code cells} number.
+     */
+    final long[][] openings;
+
+    /** Blunder counts by position ({@code xBits | oBits << 9}) before the blunder, or null if not 3x3 */
+    final int[] blunderPositions;
+
+    /** Wall-clock time taken, in nanoseconds */
+    public final long elapsedNanos;
+
+    GameLogAnalysis(BoardGeometry geometry, long games, long[] outcomes, long[][] typeResults, long[] typeMoves,
+                    long[] typeBlunders, int openingDepth, long[][] openings, int[] blunderPositions,
+                    long elapsedNanos) {
+        this.geometry = geometry;
+        this.games = games;
+        this.outcomes = outcomes;
+        this.typeResults = typeResults;
+        this.typeMoves = typeMoves;
+        this.typeBlunders = typeBlunders;
+        this.openingDepth = openingDepth;
+        this.openings = openings;
+        this.blunderPositions = blunderPositions;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the game counts, by outcome, of the games that started with the given moves.
+     *
+     * @param moves The opening moves as cell indexes (1 to {@link #openingDepth} of them)
+     * @return Counts indexed by {@link #FIRST_WINS}, {@link #DRAW} and {@link #SECOND_WINS}
+     * @throws IllegalArgumentException if more moves are given than were tracked
+     */
+    public long[] opening(int... moves) {
+        if (moves.length == 0 || moves.length > openingDepth) {
+            throw new IllegalArgumentException("Openings of 1 to " + openingDepth + " moves were tracked");
+        }
+        int sequence = 0;
+        for (int move : moves) {
+            sequence = sequence * geometry.cells + move;
+        }
+        long[] counts = openings[moves.length - 1];
+        return new long[]{counts[sequence * 3], counts[sequence * 3 + 1], counts[sequence * 3 + 2]};
+    }
+
+    /**
+     * Gets how many games a player type played.
+     *
+     * @param type The player type
+     * @return The number of games it played in
+     */
+    public long games(PlayerType type) {
+        long[] results = typeResults[type.ordinal()];
+        return results[WIN] + results[DRAW] + results[LOSS];
+    }
+
+    /**
+     * Gets the share of its games a player type won.
+     *
+     * @param type The player type
+     * @return The win rate (0 to 1), or 0 if it played no games
+     */
+    public double winRate(PlayerType type) {
+        long games = games(type);
+        return (games == 0) ? 0 : (double) typeResults[type.ordinal()][WIN] / games;
+    }
+
+    /**
+     * Gets the share of its games a player type drew.
+     *
+     * @param type The player type
+     * @return The draw rate (0 to 1), or 0 if it played no games
+     */
+    public double drawRate(PlayerType type) {
+        long games = games(type);
+        return (games == 0) ? 0 : (double) typeResults[type.ordinal()][DRAW] / games;
+    }
+
+    /**
+     * Gets the positions where blunders were made most often.
+     *
+     * @param limit The maximum number of positions to return
+     * @return Pairs of {position, count}, most frequent first, with positions packed as
+     *         {@code xBits | oBits << 9}; empty unless the board is 3x3
+     */
+    public List<long[]> topBlunderPositions(int limit) {
+        List<long[]> top = new ArrayList<>();
+        if (blunderPositions == null) return top;
+
+        for (int position = 0; position < blunderPositions.length; position++) {
+            if (blunderPositions[position] > 0) {
+                top.add(new long[]{position, blunderPositions[position]});
+            }
+        }
+        top.sort((a, b) -> Long.compare(b[1], a[1]));
+        return (top.size() > limit) ? top.subList(0, limit) : top;
+    }
+
+    /**
+     * Formats a human-readable report.
+     *
+     * @param topOpenings The number of most frequent openings to list per depth
+     * @return The report
+     */
+    public String report(int topOpenings) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d games on %s in %.1f s%n", games, geometry, elapsedNanos / 1e9));
+        out.append(String.format("  first player wins %s, draws %s, second player wins %s%n",
+                percent(outcomes[FIRST_WINS], games), percent(outcomes[DRAW], games),
+                percent(outcomes[SECOND_WINS], games)));
+
+        out.append(String.format("%nBy player type%n"));
+        for (PlayerType type : PlayerType.values()) {
+            long games = games(type);
+            if (games == 0) continue;
+            long[] results = typeResults[type.ordinal()];
+            out.append(String.format("  %-10s %10d games: won %s, drew %s, lost %s", type, games,
+                    percent(results[WIN], games), percent(results[DRAW], games), percent(results[LOSS], games)));
+            if (blunderPositions != null) {
+                out.append(String.format(", blundered %d of %d moves", typeBlunders[type.ordinal()],
+                        typeMoves[type.ordinal()]));
+            }
+            out.append(String.format("%n"));
+        }
+
+        for (int depth = 1; depth <= openingDepth; depth++) {
+            out.append(String.format("%nMost played openings of %d move%s%n", depth, (depth == 1) ? "" : "s"));
+            long[] counts = openings[depth - 1];
+            List<long[]> top = new ArrayList<>();
+            for (int sequence = 0; sequence < counts.length / 3; sequence++) {
+                long games = counts[sequence * 3] + counts[sequence * 3 + 1] + counts[sequence * 3 + 2];
+                if (games > 0) top.add(new long[]{sequence, games});
+            }
+            top.sort((a, b) -> Long.compare(b[1], a[1]));
+
+            for (long[] entry : top.subList(0, Math.min(topOpenings, top.size()))) {
+                int sequence = (int) entry[0];
+                out.append(String.format("  %-24s %10d games: first wins %s, draws %s, second wins %s%n",
+                        describe(sequence, depth), entry[1], percent(counts[sequence * 3], entry[1]),
+                        percent(counts[sequence * 3 + 1], entry[1]), percent(counts[sequence * 3 + 2], entry[1])));
+            }
+        }
+
+        if (blunderPositions != null) {
+            out.append(String.format("%nPositions with the most blunders%n"));
+            for (long[] entry : topBlunderPositions(topOpenings)) {
+                out.append(String.format("  %s %10d%n", board((int) entry[0]), entry[1]));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes an opening as its moves in (row,col) form.
+     */
+    private String describe(int sequence, int depth) {
+        int[] moves = new int[depth];
+        for (int i = depth - 1; i >= 0; i--) {
+            moves[i] = sequence % geometry.cells;
+            sequence /= geometry.cells;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int move : moves) {
+            if (text.length() > 0) text.append(' ');
+            text.append('(').append(geometry.row(move)).append(',').append(geometry.col(move)).append(')');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes a 3x3 position on one line, rows separated by '/'.
+     */
+    private static String board(int position) {
+        StringBuilder text = new StringBuilder();
+        for (int cell = 0; cell < 9; cell++) {
+            if (cell > 0 && cell % 3 == 0) text.append('/');
+            text.append(((position >>> cell) & 1) != 0 ? 'X' : ((position >>> (cell + 9)) & 1) != 0 ? 'O' : '.');
+        }
+        return text.toString();
+    }
+
+    private static String percent(long part, long whole) {
+        return String.format("%5.1f%%", (whole == 0) ? 0.0 : 100.0 * part / whole);
+    }
+
+    /**
+     * Returns a one-line summary of this analysis.
+     *
+     * @return e.g. "1000000 games: first player 58.5%, draws 12.7%, second player 28.8%"
+     */
+    @Override
+    public String toString() {
+        return String.format("%d games: first player %s, draws %s, second player %s", games,
+                percent(outcomes[FIRST_WINS], games).trim(), percent(outcomes[DRAW], games).trim(),
+                percent(outcomes[SECOND_WINS], games).trim());
+    }
+
+}
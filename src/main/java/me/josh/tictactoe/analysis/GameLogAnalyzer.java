@@ -0,0 +1,287 @@
+package me.josh.tictactoe.analysis;
+
+import me.josh.tictactoe.model.Bitboard;
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.ai.PerfectPlayTable;
+import me.josh.tictactoe.model.player.HumanPlayer;
+import me.josh.tictactoe.model.player.PlayerType;
+import me.josh.tictactoe.record.GameLogFormat;
+import me.josh.tictactoe.record.GameLogReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scans a recorded game log and gathers a {@link GameLogAnalysis}.<br>
+ * The log is read through its memory map and split into a few ranges per core; each range
+ * replays its games on one reused {@link TicTacToeGame} and counts into its own fixed-size
+ * tables, which are summed at the end. Memory use depends on the board, the opening depth
+ * and the number of cores, never on the size of the log.<br>
+ * On 3x3 boards every move is also checked against the {@link PerfectPlayTable}: a move is
+ * a blunder if the mover's result with perfect play is worse after it than before it.
+ */
+public class GameLogAnalyzer {
+
+    /** Largest opening table allowed, in entries */
+    private static final long MAX_OPENING_ENTRIES = 1 << 24;
+
+    /** Fewest games per range, so small logs are not split needlessly */
+    private static final long MIN_RANGE = 4096;
+
+    /** Range tasks per core, to even out uneven ranges */
+    private static final int RANGES_PER_CORE = 4;
+
+    private static final PlayerType[] TYPES = PlayerType.values();
+
+    private final GameLogReader log;
+    private final BoardGeometry geometry;
+    private final int openingDepth;
+
+    /**
+     * Creates an analyzer.
+     *
+     * @param log The game log to read
+     * @param openingDepth The number of opening moves to track in the opening tree
+     * @throws IllegalArgumentException if the opening tree would be too large for the board
+     */
+    public GameLogAnalyzer(GameLogReader log, int openingDepth) {
+        this.log = log;
+        this.geometry = log.getGeometry();
+        this.openingDepth = Math.min(openingDepth, geometry.cells);
+
+        long entries = 3;
+        for (int depth = 1; depth <= this.openingDepth; depth++) {
+            entries *= geometry.cells;
+            if (entries > MAX_OPENING_ENTRIES) {
+                throw new IllegalArgumentException("Opening depth " + openingDepth + " is too deep for " + geometry);
+            }
+        }
+    }
+
+    /**
+     * Analyses the whole log on all available cores.
+     *
+     * @return The analysis
+     */
+    public GameLogAnalysis run() {
+        return run(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Analyses the whole log with the given parallelism.
+     * A parallelism of 1 reads every game on the calling thread.
+     *
+     * @param parallelism The number of worker threads
+     * @return The analysis
+     */
+    public GameLogAnalysis run(int parallelism) {
+        long start = System.nanoTime();
+        long size = log.size();
+        Counts counts;
+
+        if (parallelism == 1) {
+            counts = new Counts();
+            counts.scan(0, size);
+        } else {
+            long range = Math.max(MIN_RANGE, (size + parallelism * RANGES_PER_CORE - 1) / (parallelism * RANGES_PER_CORE));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                counts = pool.invoke(new ScanTask(0, size, range));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        return new GameLogAnalysis(geometry, size, counts.outcomes, counts.typeResults, counts.typeMoves,
+                counts.typeBlunders, openingDepth, counts.openings, counts.blunderPositions,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Scans a contiguous range of games, splitting it in half until it is small enough.
+     */
+    private class ScanTask extends RecursiveTask<Counts> {
+
+        private final long from;
+        private final long to;
+        private final long range;
+
+        ScanTask(long from, long to, long range) {
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from > range) {
+                long mid = (from + to) >>> 1;
+                ScanTask left = new ScanTask(from, mid, range);
+                left.fork();
+                Counts right = new ScanTask(mid, to, range).compute();
+                Counts counts = left.join();
+                counts.add(right);
+                return counts;
+            }
+
+            Counts counts = new Counts();
+            counts.scan(from, to);
+            return counts;
+        }
+
+    }
+
+    /**
+     * The tables filled by one range of games, and the scratch state to fill them.
+     */
+    private final class Counts {
+
+        final long[] outcomes = new long[3];
+        final long[][] typeResults = new long[TYPES.length][3];
+        final long[] typeMoves = new long[TYPES.length];
+        final long[] typeBlunders = new long[TYPES.length];
+        final long[][] openings = new long[openingDepth][];
+        final int[] blunderPositions = geometry.isStandard() ? new int[1 << (2 * Bitboard.CELLS)] : null;
+
+        /** Replay boards, one per first-mover symbol, created when first needed */
+        private TicTacToeGame xFirst;
+        private TicTacToeGame oFirst;
+
+        private final int[] moves = new int[geometry.cells];
+
+        Counts() {
+            long entries = 3;
+            for (int depth = 1; depth <= openingDepth; depth++) {
+                entries *= geometry.cells;
+                openings[depth - 1] = new long[(int) entries];
+            }
+        }
+
+        /**
+         * Counts every game in a range of the log.
+         */
+        void scan(long from, long to) {
+            for (long i = from; i < to; i++) {
+                int count = log.moves(i, moves);
+                int outcome = switch (log.outcome(i)) {
+                    case GameLogFormat.PLAYER1_WINS -> GameLogAnalysis.FIRST_WINS;
+                    case GameLogFormat.PLAYER2_WINS -> GameLogAnalysis.SECOND_WINS;
+                    default -> GameLogAnalysis.DRAW;
+                };
+                int type1 = log.player1Type(i).ordinal();
+                int type2 = log.player2Type(i).ordinal();
+
+                outcomes[outcome]++;
+                typeResults[type1][outcome]++;
+                typeResults[type2][2 - outcome]++;
+
+                int sequence = 0;
+                for (int depth = 1; depth <= Math.min(openingDepth, count); depth++) {
+                    sequence = sequence * geometry.cells + moves[depth - 1];
+                    openings[depth - 1][sequence * 3 + outcome]++;
+                }
+
+                if (blunderPositions != null) {
+                    checkMoves(log.player1Symbol(i), count, type1, type2);
+                }
+            }
+        }
+
+        /**
+         * Replays a 3x3 game and compares each move with perfect play.
+         */
+        private void checkMoves(Symbol firstSymbol, int count, int type1, int type2) {
+            TicTacToeGame game = game(firstSymbol);
+            game.reset();
+
+            for (int ply = 0; ply < count; ply++) {
+                Symbol mover = game.getCurrentSymbol();
+                int me = (int) game.getBits(mover, 0);
+                int opp = (int) game.getBits(mover.opposite(), 0);
+                int cell = moves[ply];
+
+                int before = PerfectPlayTable.value(me, opp);
+                int next = me | (1 << cell);
+                int after = Bitboard.hasWin(next) ? PerfectPlayTable.WIN
+                        : Bitboard.isFull(next, opp) ? PerfectPlayTable.DRAW
+                        : -PerfectPlayTable.value(opp, next);
+
+                int type = (ply % 2 == 0) ? type1 : type2;
+                typeMoves[type]++;
+                if (after < before) {
+                    typeBlunders[type]++;
+                    int x = (mover == Symbol.X) ? me : opp;
+                    int o = (mover == Symbol.X) ? opp : me;
+                    blunderPositions[x | (o << Bitboard.CELLS)]++;
+                }
+
+                game.makeMove(cell);
+            }
+        }
+
+        private TicTacToeGame game(Symbol firstSymbol) {
+            if (firstSymbol == Symbol.X) {
+                if (xFirst == null) xFirst = newGame(Symbol.X);
+                return xFirst;
+            }
+            if (oFirst == null) oFirst = newGame(Symbol.O);
+            return oFirst;
+        }
+
+        private TicTacToeGame newGame(Symbol firstSymbol) {
+            return new TicTacToeGame(new HumanPlayer(firstSymbol, "First"),
+                    new HumanPlayer(firstSymbol.opposite(), "Second"), geometry);
+        }
+
+        /**
+         * Adds another range's counts into this one.
+         */
+        void add(Counts other) {
+            addInto(outcomes, other.outcomes);
+            addInto(typeMoves, other.typeMoves);
+            addInto(typeBlunders, other.typeBlunders);
+            for (int type = 0; type < TYPES.length; type++) {
+                addInto(typeResults[type], other.typeResults[type]);
+            }
+            for (int depth = 0; depth < openingDepth; depth++) {
+                addInto(openings[depth], other.openings[depth]);
+            }
+            if (blunderPositions != null) {
+                for (int i = 0; i < blunderPositions.length; i++) {
+                    blunderPositions[i] += other.blunderPositions[i];
+                }
+            }
+        }
+
+        private void addInto(long[] total, long[] part) {
+            for (int i = 0; i < total.length; i++) {
+                total[i] += part[i];
+            }
+        }
+
+    }
+
+    /**
+     * Analyses a log from the command line and prints the report.
+     * Arguments: {@code logFile [openingDepth] [topOpenings]}, e.g. {@code games.log 3 10}.
+     *
+     * @param args The command line arguments
+     * @throws IOException if the log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: GameLogAnalyzer logFile [openingDepth] [topOpenings]");
+            return;
+        }
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 2;
+        int top = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+
+        GameLogReader log = GameLogReader.open(Path.of(args[0]));
+        System.out.print(new GameLogAnalyzer(log, depth).run().report(top));
+    }
+
+}
@@ -0,0 +1,187 @@
+package me.josh.tictactoe.analysis;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+
+/**
+ * Results of solving a game tree with {@link GameTreeSolver}: the size of the tree, the
+ * distinct positions in it and their values with perfect play.<br>
+ * Outcomes are indexed by {@link #X_WINS}, {@link #DRAW} and {@link #O_WINS}. Tree counts
+ * count every move order separately, whereas position counts count each board once.
+ * Both include the start position.
+ */
+public final class GameTreeSolution {
+
+    /** Outcome index: X wins */
+    public static final int X_WINS = 0;
+
+    /** Outcome index: a draw */
+    public static final int DRAW = 1;
+
+    /** Outcome index: O wins */
+    public static final int O_WINS = 2;
+
+    /** Outcome of a move that cannot be played because its cell is taken */
+    public static final int NO_OUTCOME = -1;
+
+    /** The board shape */
+    public final BoardGeometry geometry;
+
+    /** The side to move at the start position */
+    public final Symbol toMove;
+
+    /** Moves already played at the start position */
+    public final int startMoves;
+
+    /** Distinct positions reachable from the start, by number of moves played after it */
+    final long[] plyPositions;
+
+    /** Tree nodes, i.e. move sequences from the start, by number of moves played after it */
+    final long[] plyNodes;
+
+    /** Total distinct positions reachable from the start */
+    public final long positions;
+
+    /** Total nodes of the game tree */
+    public final long nodes;
+
+    /** Finished games (tree leaves) by outcome */
+    public final long[] games;
+
+    /** Distinct finished positions by outcome */
+    public final long[] endPositions;
+
+    /** Distinct positions by their outcome with perfect play */
+    public final long[] values;
+
+    /** Outcome of the start position with perfect play */
+    public final int outcome;
+
+    /** Outcome with perfect play after each move from the start, by cell index, or {@link #NO_OUTCOME} */
+    final int[] moveOutcomes;
+
+    /** Wall-clock time taken, in nanoseconds */
+    public final long elapsedNanos;
+
+    GameTreeSolution(BoardGeometry geometry, Symbol toMove, int startMoves, long[] plyPositions, long[] plyNodes,
+                     long[] games, long[] endPositions, long[] values, int outcome, int[] moveOutcomes,
+                     long elapsedNanos) {
+        this.geometry = geometry;
+        this.toMove = toMove;
+        this.startMoves = startMoves;
+        this.plyPositions = plyPositions;
+        this.plyNodes = plyNodes;
+        this.positions = sum(plyPositions);
+        this.nodes = sum(plyNodes);
+        this.games = games;
+        this.endPositions = endPositions;
+        this.values = values;
+        this.outcome = outcome;
+        this.moveOutcomes = moveOutcomes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the distinct positions reachable with a given number of moves after the start.
+     *
+     * @param ply The number of moves after the start
+     * @return The number of positions, or 0 past the end of the tree
+     */
+    public long positionsAt(int ply) {
+        return (ply >= 0 && ply < plyPositions.length) ? plyPositions[ply] : 0;
+    }
+
+    /**
+     * Gets the tree nodes a given number of moves after the start.
+     *
+     * @param ply The number of moves after the start
+     * @return The number of move sequences of that length, or 0 past the end of the tree
+     */
+    public long nodesAt(int ply) {
+        return (ply >= 0 && ply < plyNodes.length) ? plyNodes[ply] : 0;
+    }
+
+    /**
+     * Gets the outcome with perfect play after a move from the start position.
+     *
+     * @param cell The cell index of the move
+     * @return {@link #X_WINS}, {@link #DRAW}, {@link #O_WINS}, or {@link #NO_OUTCOME} if the cell is taken
+     */
+    public int moveOutcome(int cell) {
+        return moveOutcomes[cell];
+    }
+
+    /**
+     * Checks whether a move from the start position keeps the best outcome for the side to move.
+     *
+     * @param cell The cell index of the move
+     * @return true if the move is optimal
+     */
+    public boolean isOptimal(int cell) {
+        return moveOutcomes[cell] == outcome;
+    }
+
+    /**
+     * Formats a human-readable report.
+     *
+     * @return The report
+     */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%s after %d move%s, %s to move, solved in %.3f s%n", geometry, startMoves,
+                (startMoves == 1) ? "" : "s", toMove, elapsedNanos / 1e9));
+        out.append(String.format("  perfect play: %s%n", name(outcome)));
+        out.append(String.format("  %d tree nodes, %d games: %s%n", nodes, sum(games), split(games)));
+        out.append(String.format("  %d distinct positions: %s with perfect play%n", positions, split(values)));
+        out.append(String.format("  %d distinct finished positions: %s%n", sum(endPositions), split(endPositions)));
+
+        out.append(String.format("%nBy ply%n"));
+        for (int ply = 0; ply < plyPositions.length; ply++) {
+            out.append(String.format("  %3d %12d positions %18d nodes%n", startMoves + ply, plyPositions[ply],
+                    plyNodes[ply]));
+        }
+
+        out.append(String.format("%nMoves for %s%n", toMove));
+        for (int row = 0; row < geometry.rows; row++) {
+            out.append("  ");
+            for (int col = 0; col < geometry.cols; col++) {
+                int move = moveOutcomes[geometry.index(row, col)];
+                out.append((move == NO_OUTCOME) ? '#' : (move == X_WINS) ? 'X' : (move == O_WINS) ? 'O' : '=');
+            }
+            out.append(String.format("%n"));
+        }
+        out.append(String.format("  (X or O: that side wins, =: draw, #: taken)%n"));
+        return out.toString();
+    }
+
+    private static String split(long[] outcomes) {
+        return String.format("X wins %d, draws %d, O wins %d", outcomes[X_WINS], outcomes[DRAW], outcomes[O_WINS]);
+    }
+
+    private static String name(int outcome) {
+        return switch (outcome) {
+            case X_WINS -> "X wins";
+            case O_WINS -> "O wins";
+            default -> "draw";
+        };
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns a one-line summary of this solution.
+     *
+     * @return e.g. "3x3, 3 in a row: draw, 549946 nodes, 5478 positions"
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %s, %d nodes, %d positions", geometry, name(outcome), nodes, positions);
+    }
+
+}
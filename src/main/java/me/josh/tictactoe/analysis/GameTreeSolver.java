@@ -0,0 +1,505 @@
+package me.josh.tictactoe.analysis;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.HumanPlayer;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Enumerates the whole game tree below a position and solves it, producing a {@link GameTreeSolution}.<br>
+ * Positions are counted once each but the tree is never walked move by move. The solver works
+ * one ply at a time instead. Every position a ply can hold gets a dense index: the new stones
+ * of each side are ranked as combinations of the empty cells. Two sweeps cover all plies:
+ * <ul>
+ * <li>forwards, a position's path count is the sum over its open parent positions, so the
+ * tree's node and game counts come out exactly without visiting each node</li>
+ * <li>backwards, a position's perfect-play value is the best of its children's values</li>
+ * </ul>
+ * Each ply is split into ranges that run as fork-join tasks. Memory is one status byte per
+ * position plus two plies of path counts, so a 4x4 board from empty (about 10^13 tree nodes)
+ * solves in a 160 MB heap.<br>
+ * Wins and draws follow the game's rules: the winning lines are the board's own
+ * {@link BoardGeometry#winMasks() windows}, and a full board without a win is a draw.
+ */
+public class GameTreeSolver {
+
+    /** Most empty cells a start position may have; 20! move orders still fit node counts in a long */
+    public static final int MAX_FREE_CELLS = 20;
+
+    /** Most positions in one ply, so the two plies of path counts stay within 128 MB */
+    private static final long MAX_PLY_POSITIONS = 1 << 23;
+
+    /** Most positions over all plies, one status byte each */
+    private static final long MAX_POSITIONS = 1 << 27;
+
+    /** Fewest positions per task, so small plies are not split needlessly */
+    private static final int MIN_RANGE = 4096;
+
+    /** Range tasks per core, to even out uneven ranges */
+    private static final int RANGES_PER_CORE = 4;
+
+    /** Position status codes; the winner of a won position is the side that just moved */
+    private static final byte UNREACHABLE = 0;
+    private static final byte OPEN = 1;
+    private static final byte WON = 2;
+    private static final byte FULL = 3;
+
+    /** Perfect-play values for the side to move */
+    private static final int LOSS = -1;
+    private static final int DRAW = 0;
+    private static final int WIN = 1;
+
+    /** Tally indexes: forward sweep */
+    private static final int POSITIONS = 0;
+    private static final int NODES = 1;
+    private static final int WON_POSITIONS = 2;
+    private static final int WON_GAMES = 3;
+    private static final int DRAWN_POSITIONS = 4;
+    private static final int DRAWN_GAMES = 5;
+    private static final int TALLIES = 6;
+
+    private final BoardGeometry geometry;
+
+    /** The side to move at the start, whose new stones are called the mover's below */
+    private final Symbol mover;
+
+    /** Moves already played at the start */
+    private final int startMoves;
+
+    /** The board cell of each bit of a free-cell mask */
+    private final int[] free;
+
+    /** Winning lines each side can still complete, as free-cell masks */
+    private final int[] moverLines;
+    private final int[] otherLines;
+
+    /** choose[n][k] is n choose k */
+    private final long[][] choose;
+
+    /** Number of positions each ply can hold */
+    private final int[] plySizes;
+
+    /**
+     * Creates a solver for the game tree below a game's current position.
+     * The game is only read here and can be used again afterwards.
+     *
+     * @param start The start position; must not be over
+     * @throws IllegalArgumentException if the game is over or the tree is too large to solve
+     */
+    public GameTreeSolver(TicTacToeGame start) {
+        if (start.isGameOver()) {
+            throw new IllegalArgumentException("The game is already over");
+        }
+        this.geometry = start.geometry;
+        if (geometry.cells > Long.SIZE) {
+            throw new IllegalArgumentException("Boards over 64 cells cannot be solved: " + geometry);
+        }
+
+        this.mover = start.getCurrentSymbol();
+        this.startMoves = start.getMoveCount();
+        long moverBits = start.getBits(mover, 0);
+        long otherBits = start.getBits(mover.opposite(), 0);
+
+        this.free = new int[geometry.cells - startMoves];
+        if (free.length > MAX_FREE_CELLS) {
+            throw new IllegalArgumentException(free.length + " empty cells are too many to solve; the limit is "
+                    + MAX_FREE_CELLS);
+        }
+        for (int cell = 0, i = 0; cell < geometry.cells; cell++) {
+            if (((moverBits | otherBits) >>> cell & 1) == 0) free[i++] = cell;
+        }
+
+        this.moverLines = lines(otherBits);
+        this.otherLines = lines(moverBits);
+
+        this.choose = new long[free.length + 1][free.length + 1];
+        for (int n = 0; n <= free.length; n++) {
+            choose[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                choose[n][k] = choose[n - 1][k - 1] + choose[n - 1][k];
+            }
+        }
+
+        this.plySizes = new int[free.length + 1];
+        long total = 0;
+        for (int ply = 0; ply <= free.length; ply++) {
+            int movers = movers(ply);
+            long size = choose[free.length][movers] * choose[free.length - movers][ply - movers];
+            if (size > MAX_PLY_POSITIONS || (total += size) > MAX_POSITIONS) {
+                throw new IllegalArgumentException("Game tree of " + geometry + " is too large to solve");
+            }
+            plySizes[ply] = (int) size;
+        }
+    }
+
+    /**
+     * Finds every winning window of the board that holds none of the given stones, as a free-cell mask.
+     * A line may need no free cells only if its owner has already won, which a start position rules out.
+     */
+    private int[] lines(long blocked) {
+        long[] windows = geometry.winMasks();
+        int[] lines = new int[windows.length];
+        int count = 0;
+        for (long line : windows) {
+            if ((line & blocked) == 0) lines[count++] = freeMask(line);
+        }
+        return Arrays.copyOf(lines, count);
+    }
+
+    /**
+     * Converts a board mask of empty cells to a free-cell mask.
+     */
+    private int freeMask(long board) {
+        int mask = 0;
+        for (int i = 0; i < free.length; i++) {
+            if ((board >>> free[i] & 1) != 0) mask |= 1 << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Solves the tree on all available cores.
+     *
+     * @return The solution
+     */
+    public GameTreeSolution run() {
+        return run(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Solves the tree with the given parallelism.
+     * A parallelism of 1 solves every ply on the calling thread.
+     *
+     * @param parallelism The number of worker threads
+     * @return The solution
+     */
+    public GameTreeSolution run(int parallelism) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+        try {
+            return solve(pool, parallelism, start);
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+    }
+
+    private GameTreeSolution solve(ForkJoinPool pool, int parallelism, long start) {
+        int plies = free.length + 1;
+        byte[][] status = new byte[plies][];
+        long[] positions = new long[plies];
+        long[] nodes = new long[plies];
+        long[] games = new long[3];
+        long[] endPositions = new long[3];
+
+        // Forwards: path counts and the status of every position
+        status[0] = new byte[]{OPEN};
+        positions[0] = 1;
+        nodes[0] = 1;
+        long[] paths = {1};
+        long open = 1;
+        int lastPly = 0;
+        while (open > 0 && lastPly + 1 < plies) {
+            int ply = ++lastPly;
+            byte[] parentStatus = status[ply - 1];
+            long[] parentPaths = paths;
+            byte[] plyStatus = status[ply] = new byte[plySizes[ply]];
+            long[] plyPaths = paths = new long[plySizes[ply]];
+
+            long[] tallies = scan(pool, parallelism, plySizes[ply],
+                    (from, to, t) -> forward(ply, parentStatus, parentPaths, plyStatus, plyPaths, from, to, t));
+            positions[ply] = tallies[POSITIONS];
+            nodes[ply] = tallies[NODES];
+
+            Symbol moved = sideToMove(ply).opposite();
+            int winner = (moved == Symbol.X) ? GameTreeSolution.X_WINS : GameTreeSolution.O_WINS;
+            endPositions[winner] += tallies[WON_POSITIONS];
+            games[winner] += tallies[WON_GAMES];
+            endPositions[GameTreeSolution.DRAW] += tallies[DRAWN_POSITIONS];
+            games[GameTreeSolution.DRAW] += tallies[DRAWN_GAMES];
+            open = tallies[POSITIONS] - tallies[WON_POSITIONS] - tallies[DRAWN_POSITIONS];
+        }
+        paths = null;
+
+        // Backwards: perfect-play values, keeping only the ply below
+        long[] values = new long[3];
+        byte[] childValues = null;
+        byte[] firstPlyValues = null;
+        for (int ply = lastPly; ply >= 0; ply--) {
+            byte[] plyStatus = status[ply];
+            byte[] children = childValues;
+            byte[] plyValues = new byte[plySizes[ply]];
+            int at = ply;
+
+            long[] tallies = scan(pool, parallelism, plySizes[ply],
+                    (from, to, t) -> backward(at, plyStatus, children, plyValues, from, to, t));
+
+            boolean xToMove = sideToMove(ply) == Symbol.X;
+            values[xToMove ? GameTreeSolution.X_WINS : GameTreeSolution.O_WINS] += tallies[WIN + 1];
+            values[GameTreeSolution.DRAW] += tallies[DRAW + 1];
+            values[xToMove ? GameTreeSolution.O_WINS : GameTreeSolution.X_WINS] += tallies[LOSS + 1];
+
+            status[ply] = null;
+            if (ply == 1) firstPlyValues = plyValues;
+            childValues = plyValues;
+        }
+
+        int outcome = outcome(childValues[0], mover);
+        int[] moveOutcomes = new int[geometry.cells];
+        Arrays.fill(moveOutcomes, GameTreeSolution.NO_OUTCOME);
+        for (int i = 0; i < free.length; i++) {
+            moveOutcomes[free[i]] = outcome(firstPlyValues[rank(1 << i, 0, 1, 0)], mover.opposite());
+        }
+
+        return new GameTreeSolution(geometry, mover, startMoves, positions, nodes, games, endPositions, values,
+                outcome, moveOutcomes, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs a scan over every position of a ply, split into fork-join tasks unless the pool is null.
+     */
+    private static long[] scan(ForkJoinPool pool, int parallelism, int size, RangeScan scan) {
+        if (pool == null) {
+            long[] tallies = new long[TALLIES];
+            scan.scan(0, size, tallies);
+            return tallies;
+        }
+        int range = Math.max(MIN_RANGE, (size + parallelism * RANGES_PER_CORE - 1) / (parallelism * RANGES_PER_CORE));
+        return pool.invoke(new RangeTask(scan, 0, size, range));
+    }
+
+    /**
+     * Counts the paths into each position of a ply from the open positions of the ply above.
+     */
+    private void forward(int ply, byte[] parentStatus, long[] parentPaths, byte[] status, long[] paths,
+                         int from, int to, long[] tallies) {
+        int movers = movers(ply);
+        int others = ply - movers;
+        boolean moverMoved = (ply & 1) == 1;
+        int[] lines = moverMoved ? moverLines : otherLines;
+
+        for (int i = from; i < to; i++) {
+            long position = unrank(i, movers, others);
+            int mine = (int) position;
+            int theirs = (int) (position >>> 32);
+            int last = moverMoved ? mine : theirs;
+
+            // Every stone of the side that just moved could have been its last move
+            long count = 0;
+            for (int rest = last; rest != 0; rest &= rest - 1) {
+                int bit = rest & -rest;
+                int parent = moverMoved ? rank(mine ^ bit, theirs, movers - 1, others)
+                        : rank(mine, theirs ^ bit, movers, others - 1);
+                if (parentStatus[parent] == OPEN) count += parentPaths[parent];
+            }
+            paths[i] = count;
+            if (count == 0) continue;
+
+            tallies[POSITIONS]++;
+            tallies[NODES] += count;
+            if (hasLine(last, lines)) {
+                status[i] = WON;
+                tallies[WON_POSITIONS]++;
+                tallies[WON_GAMES] += count;
+            } else if (ply == free.length) {
+                status[i] = FULL;
+                tallies[DRAWN_POSITIONS]++;
+                tallies[DRAWN_GAMES] += count;
+            } else {
+                status[i] = OPEN;
+            }
+        }
+    }
+
+    /**
+     * Finds the value of each reachable position of a ply for the side to move.
+     */
+    private void backward(int ply, byte[] status, byte[] childValues, byte[] values, int from, int to,
+                          long[] tallies) {
+        int movers = movers(ply);
+        int others = ply - movers;
+        boolean moverToMove = (ply & 1) == 0;
+        int all = (1 << free.length) - 1;
+
+        for (int i = from; i < to; i++) {
+            int value;
+            switch (status[i]) {
+                case UNREACHABLE -> {
+                    continue;
+                }
+                case WON -> value = LOSS;
+                case FULL -> value = DRAW;
+                default -> {
+                    long position = unrank(i, movers, others);
+                    int mine = (int) position;
+                    int theirs = (int) (position >>> 32);
+
+                    value = LOSS;
+                    for (int empty = all & ~(mine | theirs); empty != 0 && value != WIN; empty &= empty - 1) {
+                        int bit = empty & -empty;
+                        int child = moverToMove ? rank(mine | bit, theirs, movers + 1, others)
+                                : rank(mine, theirs | bit, movers, others + 1);
+                        value = Math.max(value, -childValues[child]);
+                    }
+                }
+            }
+            values[i] = (byte) value;
+            tallies[value + 1]++;
+        }
+    }
+
+    private static boolean hasLine(int stones, int[] lines) {
+        for (int line : lines) {
+            if ((stones & line) == line) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of stones the side to move at the start has added after a number of plies.
+     */
+    private static int movers(int ply) {
+        return (ply + 1) / 2;
+    }
+
+    private Symbol sideToMove(int ply) {
+        return ((ply & 1) == 0) ? mover : mover.opposite();
+    }
+
+    /**
+     * Converts a value for the given side to move to a {@link GameTreeSolution} outcome.
+     */
+    private static int outcome(int value, Symbol toMove) {
+        if (value == DRAW) return GameTreeSolution.DRAW;
+        return ((value == WIN) == (toMove == Symbol.X)) ? GameTreeSolution.X_WINS : GameTreeSolution.O_WINS;
+    }
+
+    /**
+     * Gets the index of a position within its ply: the mover's stones ranked among all free cells,
+     * then the other side's stones ranked among the cells the mover left empty (both in colex order).
+     */
+    private int rank(int mine, int theirs, int movers, int others) {
+        long mineRank = 0;
+        long theirRank = 0;
+        int seenMine = 0;
+        int seenTheirs = 0;
+        int slot = 0;
+        for (int i = 0; i < free.length; i++) {
+            if ((mine >>> i & 1) != 0) {
+                mineRank += choose[i][++seenMine];
+            } else {
+                if ((theirs >>> i & 1) != 0) theirRank += choose[slot][++seenTheirs];
+                slot++;
+            }
+        }
+        return (int) (mineRank * choose[free.length - movers][others] + theirRank);
+    }
+
+    /**
+     * Gets the position at an index within its ply.
+     *
+     * @return The mover's stones in the low 32 bits and the other side's in the high 32 bits
+     */
+    private long unrank(int index, int movers, int others) {
+        long span = choose[free.length - movers][others];
+        int mine = combination(index / span, movers, free.length);
+        int slots = combination(index % span, others, free.length - movers);
+
+        // Spread the other side's slots over the cells the mover left empty
+        int theirs = 0;
+        for (int i = 0, slot = 0; slots >>> slot != 0; i++) {
+            if ((mine >>> i & 1) == 0) {
+                if ((slots >>> slot & 1) != 0) theirs |= 1 << i;
+                slot++;
+            }
+        }
+        return (mine & 0xFFFFFFFFL) | (long) theirs << 32;
+    }
+
+    /**
+     * Gets the k-element subset of n bits with the given colex rank.
+     */
+    private int combination(long rank, int k, int n) {
+        int mask = 0;
+        int top = n - 1;
+        for (int j = k; j >= 1; j--) {
+            while (choose[top][j] > rank) top--;
+            mask |= 1 << top;
+            rank -= choose[top][j];
+            top--;
+        }
+        return mask;
+    }
+
+    /**
+     * Work on a range of positions, adding into an array of {@link #TALLIES} counts.
+     */
+    @FunctionalInterface
+    private interface RangeScan {
+        void scan(int from, int to, long[] tallies);
+    }
+
+    /**
+     * Scans a contiguous range of positions, splitting it in half until it is small enough.
+     */
+    private static final class RangeTask extends RecursiveTask<long[]> {
+
+        private final RangeScan scan;
+        private final int from;
+        private final int to;
+        private final int range;
+
+        RangeTask(RangeScan scan, int from, int to, int range) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > range) {
+                int mid = (from + to) >>> 1;
+                RangeTask left = new RangeTask(scan, from, mid, range);
+                left.fork();
+                long[] right = new RangeTask(scan, mid, to, range).compute();
+                long[] tallies = left.join();
+                for (int i = 0; i < TALLIES; i++) {
+                    tallies[i] += right[i];
+                }
+                return tallies;
+            }
+
+            long[] tallies = new long[TALLIES];
+            scan.scan(from, to, tallies);
+            return tallies;
+        }
+
+    }
+
+    /**
+     * Solves a position from the command line and prints the report.
+     * Arguments: {@code [rows cols winLength [move...]]}, with moves as cell indexes played
+     * alternately from X, e.g. {@code 4 4 4} or {@code 3 3 3 4 0}. The default is the empty 3x3 board.
+     *
+     * @param args The command line arguments
+     */
+    public static void main(String[] args) {
+        BoardGeometry geometry = (args.length >= 3)
+                ? BoardGeometry.of(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]))
+                : BoardGeometry.STANDARD;
+        TicTacToeGame game = new TicTacToeGame(new HumanPlayer(Symbol.X, "X"), new HumanPlayer(Symbol.O, "O"),
+                geometry);
+        for (int i = 3; i < args.length; i++) {
+            if (!game.makeMove(Integer.parseInt(args[i]))) {
+                System.err.println("Illegal move " + args[i]);
+                return;
+            }
+        }
+        System.out.print(new GameTreeSolver(game).run().report());
+    }
+
+}
@@ -1,22 +1,52 @@
 package me.josh.tictactoe.controller;
 
+import me.josh.tictactoe.metrics.GameMetrics;
 import me.josh.tictactoe.model.*;
 import me.josh.tictactoe.model.player.ComputerPlayer;
 import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.RemotePlayer;
 import me.josh.tictactoe.view.GameView;
 
 import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller that mediates between the game model and view.
  * Handles user input, updates the model, and refreshes the view.
- * Implements GameObserver to receive notifications of game events.
+ * Implements GameObserver to receive notifications of game events.<br>
+ * Computer moves are computed on a background thread so a slow AI never blocks the UI.
+ * The search works on a copy of the game, and the result is applied back on the Event Dispatch Thread.
  */
 public class GameController implements GameObserver {
 
+    /** Default minimum time a computer move appears to take, so the user can see their own move first */
+    public static final long DEFAULT_MIN_THINK_TIME_MILLIS = 500;
+
+    /** Runs computer move searches off the Event Dispatch Thread */
+    private static final ExecutorService AI_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "computer-player");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final TicTacToeGame game;
     private final GameView view;
 
+    /** Minimum time between the human's move and the computer's reply, in milliseconds */
+    private final long minThinkTimeMillis;
+
+    /** The computer move being computed, or null if none; cancelling it interrupts the search */
+    private Future<?> pendingMove;
+
+    /** Holds back a computer move that finished faster than the minimum think time */
+    private Timer thinkTimer;
+
+    /** Incremented whenever pending computer moves become stale (e.g. on New Game) */
+    private int moveGeneration;
+
     /**
      * Creates a new game controller.
      *
@@ -24,8 +54,20 @@ public class GameController implements GameObserver {
      * @param view The game view
      */
     public GameController(TicTacToeGame game, GameView view) {
+        this(game, view, DEFAULT_MIN_THINK_TIME_MILLIS);
+    }
+
+    /**
+     * Creates a new game controller with a custom minimum computer think time.
+     *
+     * @param game The game model
+     * @param view The game view
+     * @param minThinkTimeMillis Minimum time before a computer move is shown, in milliseconds (0 for none)
+     */
+    public GameController(TicTacToeGame game, GameView view, long minThinkTimeMillis) {
         this.game = game;
         this.view = view;
+        this.minThinkTimeMillis = minThinkTimeMillis;
 
         // Register as observer
         game.observers.add(this);
@@ -39,19 +81,13 @@ public class GameController implements GameObserver {
      * Sets up all event listeners for the view components.
      */
     private void initializeListeners() {
-        // Add listeners to all board buttons
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                final int r = row;
-                final int c = col;
-
-                JButton button = view.boardPanel.getButton(r, c);
-                button.addActionListener(e -> handleCellClick(r, c));
-            }
-        }
+        // One listener for the whole board; it reports which cell was clicked
+        view.boardPanel.addCellClickListener(this::handleCellClick);
 
-        // Add listener to new game button
+        // Add listeners to the new game, undo and redo buttons
         view.statusPanel.newGameButton.addActionListener(e -> handleNewGame());
+        view.statusPanel.undoButton.addActionListener(e -> handleUndo());
+        view.statusPanel.redoButton.addActionListener(e -> handleRedo());
     }
 
     /**
@@ -71,47 +107,164 @@ public class GameController implements GameObserver {
 
         // If game isn't over, and it's computer's turn, make computer move
         if (!game.gameOver && game.isCurrentPlayerComputer()) {
-            // Small delay so user can see their move before computer responds
-            Timer timer = new Timer(500, e -> makeComputerMove());
-            timer.setRepeats(false);
-            timer.start();
+            startComputerMove();
         }
     }
 
     /**
-     * Makes the computer player's move.
+     * Starts computing the computer player's move in the background.
+     * New Game, undo and redo keep changing the live game on this thread, so the search
+     * gets a copy of it; if the game changes first, the result is thrown away.
      */
-    private void makeComputerMove() {
+    private void startComputerMove() {
         ComputerPlayer computer = (ComputerPlayer) game.getCurrentPlayer();
-        int[] move = computer.getMove(getBoard());
+        int generation = ++moveGeneration;
+        long startNanos = System.nanoTime();
+        TicTacToeGame position = game.copy();
+
+        pendingMove = AI_EXECUTOR.submit(() -> {
+            try {
+                int move = GameMetrics.chooseMove(computer, position);
+                SwingUtilities.invokeLater(() -> showComputerMove(generation, startNanos, move));
+            } catch (Throwable t) {
+                SwingUtilities.invokeLater(() -> computerMoveFailed(generation, startNanos, computer, t));
+            }
+        });
+    }
+
+    /**
+     * Reports a search that threw and plays a heuristic move instead, so the game never
+     * waits forever on the computer's turn.
+     *
+     * @param generation The generation the move was computed for
+     * @param startNanos When the search started
+     * @param computer The player whose search failed
+     * @param failure What the search threw
+     */
+    private void computerMoveFailed(int generation, long startNanos, ComputerPlayer computer, Throwable failure) {
+        if (generation != moveGeneration) return;
 
-        if (move != null) {
-            game.makeMove(move[0], move[1]);
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+        view.statusPanel.setStatus(computer.name + " failed; playing a fallback move");
+
+        int move = new ComputerPlayer(computer.symbol).getMove(game);
+        showComputerMove(generation, startNanos, move);
+    }
+
+    /**
+     * Shows a computed move once the minimum think time has passed, unless it was cancelled.
+     *
+     * @param generation The generation the move was computed for
+     * @param startNanos When the search started
+     * @param move The chosen cell index
+     */
+    private void showComputerMove(int generation, long startNanos, int move) {
+        if (generation != moveGeneration) return;
+
+        // Hold the move back until the minimum think time has passed
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long remaining = minThinkTimeMillis - elapsedMillis;
+        if (remaining > 0) {
+            thinkTimer = new Timer((int) remaining, e -> applyComputerMove(generation, move));
+            thinkTimer.setRepeats(false);
+            thinkTimer.start();
+        } else {
+            applyComputerMove(generation, move);
         }
     }
 
     /**
-     * Gets a copy of the current board state for the computer to analyze.
+     * Makes the computer player's move, unless it was cancelled in the meantime.
      *
-     * @return A 2D array representing the board
+     * @param generation The generation the move was computed for
+     * @param move The chosen cell index
      */
-    private Symbol[][] getBoard() {
-        Symbol[][] board = new Symbol[3][3];
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                board[row][col] = game.getSymbolAt(row, col);
-            }
+    private void applyComputerMove(int generation, int move) {
+        if (generation != moveGeneration) return;
+
+        pendingMove = null;
+        thinkTimer = null;
+        if (move != Player.NO_MOVE) {
+            game.makeMove(move);
+        }
+    }
+
+    /**
+     * Cancels a computer move that is being computed or waiting to be shown.
+     * A running search is interrupted, and the searching players stop at their next clock
+     * check, so the next computer move does not queue behind it.
+     */
+    private void cancelComputerMove() {
+        moveGeneration++;
+        if (pendingMove != null) {
+            pendingMove.cancel(true);
+            pendingMove = null;
+        }
+        if (thinkTimer != null) {
+            thinkTimer.stop();
+            thinkTimer = null;
         }
-        return board;
     }
 
     /**
      * Handles the new game button click.
      */
     private void handleNewGame() {
+        // Spectators follow the server's games and cannot start their own
+        if (game.player1 instanceof RemotePlayer && game.player2 instanceof RemotePlayer) {
+            return;
+        }
         game.reset();
     }
 
+    /**
+     * Handles the undo button click.
+     * Takes back moves until it is a human's turn again, so against the computer
+     * both the computer's reply and the human's move are undone.
+     */
+    private void handleUndo() {
+        if (!canTakeBack() || !game.canUndo()) {
+            return;
+        }
+
+        cancelComputerMove();
+        do {
+            game.undo();
+        } while (game.canUndo() && !game.isCurrentPlayerHuman());
+
+        // Undone all the way back to a computer's opening move
+        if (game.isCurrentPlayerComputer()) {
+            startComputerMove();
+        }
+    }
+
+    /**
+     * Handles the redo button click.
+     * Replays undone moves until it is a human's turn again or the game ends.
+     */
+    private void handleRedo() {
+        if (!canTakeBack() || !game.canRedo()) {
+            return;
+        }
+
+        cancelComputerMove();
+        do {
+            game.redo();
+        } while (game.canRedo() && !game.gameOver && !game.isCurrentPlayerHuman());
+
+        if (!game.gameOver && game.isCurrentPlayerComputer()) {
+            startComputerMove();
+        }
+    }
+
+    /**
+     * Checks whether moves may be taken back. Not in online games, where the server owns the game.
+     */
+    private boolean canTakeBack() {
+        return !(game.player1 instanceof RemotePlayer) && !(game.player2 instanceof RemotePlayer);
+    }
+
     /**
      * Updates the status message based on current game state.
      */
@@ -126,30 +279,52 @@ public class GameController implements GameObserver {
             Player current = game.getCurrentPlayer();
             view.statusPanel.setStatus(current.name + "'s turn (" + current.symbol + ")");
         }
+
+        view.statusPanel.undoButton.setEnabled(canTakeBack() && game.canUndo());
+        view.statusPanel.redoButton.setEnabled(canTakeBack() && game.canRedo());
     }
 
     @Override
     public void onMoveMade(int row, int col, Symbol symbol) {
+        long start = GameMetrics.start();
         // Update the cell in the view
         view.boardPanel.updateCell(row, col, symbol);
+        GameMetrics.uiUpdated(start);
     }
 
     @Override
     public void onGameOver(Player winner) {
+        long start = GameMetrics.start();
         // Disable all buttons
         view.boardPanel.disableAll();
         updateStatusMessage();
+        GameMetrics.uiUpdated(start);
     }
 
     @Override
     public void onTurnChanged(Player currentPlayer) {
+        long start = GameMetrics.start();
         updateStatusMessage();
+        GameMetrics.uiUpdated(start);
+    }
+
+    @Override
+    public void onMoveUndone(int row, int col, Symbol symbol) {
+        long start = GameMetrics.start();
+        view.boardPanel.clearCell(row, col);
+        // A finished game had every cell disabled
+        view.boardPanel.enableEmpty();
+        GameMetrics.uiUpdated(start);
     }
 
     @Override
     public void onGameReset() {
+        long start = GameMetrics.start();
+        // Any computer move in flight belongs to the previous game
+        cancelComputerMove();
         view.boardPanel.reset();
         updateStatusMessage();
+        GameMetrics.uiUpdated(start);
     }
 
 }
\ No newline at end of file
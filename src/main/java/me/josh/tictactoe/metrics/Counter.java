@@ -0,0 +1,41 @@
+package me.josh.tictactoe.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, such as moves made or games finished.
+ * Backed by a {@link LongAdder}, so threads counting at once do not contend on one field.
+ */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Adds one.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adds an amount.
+     *
+     * @param amount The amount to add
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Gets the current count.
+     *
+     * @return The count
+     */
+    public long get() {
+        return count.sum();
+    }
+
+}
@@ -0,0 +1,161 @@
+package me.josh.tictactoe.metrics;
+
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.player.ComputerPlayer;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerType;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The metrics the game records into the {@link MetricsRegistry#shared() shared registry}:
+ * <ul>
+ * <li>{@code game.moves} and {@code game.moves.rejected}: moves made and invalid moves refused</li>
+ * <li>{@code game.move.nanos}: time to validate and apply a move, not counting observers,
+ * sampled on one move in {@value #MOVE_SAMPLE_RATE}</li>
+ * <li>{@code ai.move.nanos.<type>}: time a computer player of each type takes to choose a move,
+ * sampled like moves for types that answer in under 100 microseconds</li>
+ * <li>{@code game.finished}, {@code game.outcome.x}, {@code .o} and {@code .draw}: finished games and who won</li>
+ * <li>{@code game.length.moves}: moves in each finished game</li>
+ * <li>{@code ui.update.nanos}: time the controller spends updating the view for a game event</li>
+ * <li>{@code cache.hits}, {@code .misses} and {@code .evictions}: lookups in the shared
+ * {@code EvaluationCache}, which registers them itself</li>
+ * </ul>
+ * Every method only adds to preallocated counters, so recording never allocates.
+ */
+public final class GameMetrics {
+
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.shared();
+
+    /** One in this many fast moves is timed; reading the clock costs as much as a move itself */
+    public static final int MOVE_SAMPLE_RATE = 16;
+
+    /** Computer players slower than this are timed on every move */
+    private static final long SLOW_AI_NANOS = 100_000;
+
+    public static final Counter MOVES = REGISTRY.counter("game.moves");
+    public static final Counter REJECTED_MOVES = REGISTRY.counter("game.moves.rejected");
+    public static final Histogram MOVE_TIME = REGISTRY.histogram("game.move.nanos");
+
+    public static final Counter GAMES_FINISHED = REGISTRY.counter("game.finished");
+    public static final Counter X_WINS = REGISTRY.counter("game.outcome.x");
+    public static final Counter O_WINS = REGISTRY.counter("game.outcome.o");
+    public static final Counter DRAWS = REGISTRY.counter("game.outcome.draw");
+    public static final Histogram GAME_LENGTH = REGISTRY.histogram("game.length.moves");
+
+    public static final Histogram UI_UPDATE_TIME = REGISTRY.histogram("ui.update.nanos");
+
+    /** Decision time per computer player type, indexed by ordinal; null for non-computer types */
+    private static final Histogram[] AI_MOVE_TIME = new Histogram[PlayerType.values().length];
+
+    /** Whether each type's last timed move was slow; racy, as it only steers sampling */
+    private static final boolean[] SLOW_AI = new boolean[PlayerType.values().length];
+
+    static {
+        for (PlayerType type : PlayerType.values()) {
+            if (type != PlayerType.HUMAN && type != PlayerType.REMOTE) {
+                AI_MOVE_TIME[type.ordinal()] = REGISTRY.histogram("ai.move.nanos." + type.name().toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Reads the clock at the start of a timed operation.
+     *
+     * @return The start time to pass to the matching record method, or 0 if metrics are off
+     */
+    public static long start() {
+        return MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Reads the clock at the start of a move, on the moves chosen for timing.
+     *
+     * @return The start time to pass to {@link #moveMade}, or 0 if this move is not timed
+     */
+    public static long startMove() {
+        if (!MetricsRegistry.ENABLED || ThreadLocalRandom.current().nextInt(MOVE_SAMPLE_RATE) != 0) return 0;
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a move that was validated and applied.
+     *
+     * @param startNanos The value of {@link #startMove()} when the move began
+     */
+    public static void moveMade(long startNanos) {
+        if (!MetricsRegistry.ENABLED) return;
+        MOVES.increment();
+        if (startNanos != 0) {
+            MOVE_TIME.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Records a move that was refused as invalid.
+     */
+    public static void moveRejected() {
+        if (!MetricsRegistry.ENABLED) return;
+        REJECTED_MOVES.increment();
+    }
+
+    /**
+     * Records a finished game.
+     *
+     * @param winner The winning symbol, or {@link Symbol#EMPTY} for a draw
+     * @param moves The number of moves played
+     */
+    public static void gameOver(Symbol winner, int moves) {
+        if (!MetricsRegistry.ENABLED) return;
+        GAMES_FINISHED.increment();
+        switch (winner) {
+            case X -> X_WINS.increment();
+            case O -> O_WINS.increment();
+            default -> DRAWS.increment();
+        }
+        GAME_LENGTH.record(moves);
+    }
+
+    /**
+     * Records the time spent updating the view for one game event.
+     *
+     * @param startNanos The value of {@link #start()} when the update began
+     */
+    public static void uiUpdated(long startNanos) {
+        if (!MetricsRegistry.ENABLED) return;
+        UI_UPDATE_TIME.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Asks a player for its move, timing it if the player is a computer.
+     * Call this instead of {@link Player#getMove(GameState)} wherever the game waits on a player.
+     * Fast players are timed on a sample of moves, slow ones on every move.
+     *
+     * @param player The player to move
+     * @param state The current game state
+     * @return The player's move
+     */
+    public static int chooseMove(Player player, GameState state) {
+        if (!MetricsRegistry.ENABLED || !(player instanceof ComputerPlayer)) {
+            return player.getMove(state);
+        }
+
+        int type = PlayerType.of(player).ordinal();
+        if (!SLOW_AI[type] && ThreadLocalRandom.current().nextInt(MOVE_SAMPLE_RATE) != 0) {
+            return player.getMove(state);
+        }
+
+        long start = System.nanoTime();
+        int move = player.getMove(state);
+        long elapsed = System.nanoTime() - start;
+        AI_MOVE_TIME[type].record(elapsed);
+        SLOW_AI[type] = elapsed > SLOW_AI_NANOS;
+        return move;
+    }
+
+}
@@ -0,0 +1,139 @@
+package me.josh.tictactoe.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of non-negative values, such as latencies in nanoseconds or game lengths in moves.<br>
+ * Values are counted in log-linear buckets, in the style of an HDR histogram: each power of two
+ * is split into 16 equal buckets, so any percentile is reported within about 6%
+ * of the true value while the whole range of a long fits in under a thousand counters.
+ * Recording is two atomic adds and never allocates; reading totals the buckets.
+ */
+public final class Histogram {
+
+    /** Buckets per power of two, as a power of two */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Values below SUB_BUCKETS get a bucket each; every power of two above gets SUB_BUCKETS */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram() {
+    }
+
+    /**
+     * Records one value. Negative values are recorded as 0.
+     *
+     * @param value The value
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(bucket(value));
+        sum.add(value);
+
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Lost a race with a larger value; try again
+        }
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The count
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the sum of the values recorded.
+     *
+     * @return The sum
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return The maximum, or 0 if nothing was recorded
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return The mean, or 0 if nothing was recorded
+     */
+    public double mean() {
+        long n = count();
+        return (n == 0) ? 0 : (double) sum() / n;
+    }
+
+    /**
+     * Gets a percentile of the values recorded, e.g. 50 for the median or 99 for the 99th percentile.
+     * The result is the upper end of the bucket holding that rank, but never above the maximum.
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return The value at that percentile, or 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Gets the bucket a value is counted in.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the largest value counted in a bucket.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
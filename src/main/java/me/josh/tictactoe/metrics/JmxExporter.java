@@ -0,0 +1,134 @@
+package me.josh.tictactoe.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes a registry as one MBean on the platform MBean server, named
+ * {@code me.josh.tictactoe:type=Metrics}, for JConsole, VisualVM or any JMX agent.<br>
+ * Values are read when a client asks for them. Each counter is an attribute of its own name;
+ * each histogram gives the attributes {@code name.count}, {@code .mean}, {@code .p50},
+ * {@code .p90}, {@code .p99} and {@code .max}. Metrics created after exporting appear too.
+ */
+public class JmxExporter implements MetricsExporter {
+
+    /** The name the registry is published under */
+    public static final String OBJECT_NAME = "me.josh.tictactoe:type=Metrics";
+
+    private static final String[] HISTOGRAM_STATS = {"count", "mean", "p50", "p90", "p99", "max"};
+
+    /**
+     * Publishes a registry, replacing any registry published before.
+     *
+     * @param registry The registry
+     * @throws IOException if the MBean cannot be registered
+     */
+    @Override
+    public void export(MetricsRegistry registry) throws IOException {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new RegistryMBean(registry), name);
+        } catch (JMException e) {
+            throw new IOException("Cannot publish metrics as " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * A read-only MBean whose attributes are the registry's current metrics.
+     */
+    private static final class RegistryMBean implements DynamicMBean {
+
+        private final MetricsRegistry registry;
+
+        RegistryMBean(MetricsRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Counter counter = registry.counters().get(attribute);
+            if (counter != null) {
+                return counter.get();
+            }
+
+            int dot = attribute.lastIndexOf('.');
+            Histogram histogram = (dot < 0) ? null : registry.histograms().get(attribute.substring(0, dot));
+            if (histogram != null) {
+                Object value = switch (attribute.substring(dot + 1)) {
+                    case "count" -> histogram.count();
+                    case "mean" -> histogram.mean();
+                    case "p50" -> histogram.percentile(50);
+                    case "p90" -> histogram.percentile(90);
+                    case "p99" -> histogram.percentile(99);
+                    case "max" -> histogram.max();
+                    default -> null;
+                };
+                if (value != null) return value;
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException ignored) {
+                    // Leave out unknown attributes, as the DynamicMBean contract allows
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException("No operations: " + actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String name : registry.counters().keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "long", "Counter " + name, true, false, false));
+            }
+            for (Map.Entry<String, Histogram> entry : registry.histograms().entrySet()) {
+                for (String stat : HISTOGRAM_STATS) {
+                    String type = stat.equals("mean") ? "double" : "long";
+                    attributes.add(new MBeanAttributeInfo(entry.getKey() + "." + stat, type,
+                            stat + " of histogram " + entry.getKey(), true, false, false));
+                }
+            }
+            return new MBeanInfo(MetricsRegistry.class.getName(), "Tic Tac Toe metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+
+    }
+
+}
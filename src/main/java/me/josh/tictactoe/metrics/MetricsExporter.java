@@ -0,0 +1,20 @@
+package me.josh.tictactoe.metrics;
+
+import java.io.IOException;
+
+/**
+ * Makes the metrics in a registry visible outside the process.
+ * Implementations either write the current values somewhere ({@link TextExporter})
+ * or publish a view that reads them on demand ({@link JmxExporter}).
+ */
+public interface MetricsExporter {
+
+    /**
+     * Exports a registry.
+     *
+     * @param registry The registry to export
+     * @throws IOException if the metrics cannot be written or published
+     */
+    void export(MetricsRegistry registry) throws IOException;
+
+}
@@ -0,0 +1,85 @@
+package me.josh.tictactoe.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A named set of {@link Counter}s and {@link Histogram}s.<br>
+ * Metrics are looked up by name once, typically into a static final field, and then recorded
+ * into directly; the registry is only consulted again by exporters. Names are dotted and end in
+ * the unit where there is one, e.g. {@code ai.move.nanos}.<br>
+ * Set {@code -Dtictactoe.metrics=false} to switch off the timing done by {@link GameMetrics}.
+ */
+public final class MetricsRegistry {
+
+    /** Whether instrumented code should record; false when -Dtictactoe.metrics=false */
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("tictactoe.metrics", "true"));
+
+    private static final MetricsRegistry SHARED = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Gets the registry the game records into.
+     *
+     * @return The shared registry
+     */
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets a counter, creating it if needed.
+     *
+     * @param name The metric name
+     * @return The counter
+     * @throws IllegalArgumentException if the name is already used by a histogram
+     */
+    public Counter counter(String name) {
+        if (histograms.containsKey(name)) throw new IllegalArgumentException(name + " is a histogram");
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Gets a histogram, creating it if needed.
+     *
+     * @param name The metric name
+     * @return The histogram
+     * @throws IllegalArgumentException if the name is already used by a counter
+     */
+    public Histogram histogram(String name) {
+        if (counters.containsKey(name)) throw new IllegalArgumentException(name + " is a counter");
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Gets every counter by name, in name order.
+     *
+     * @return A read-only live view of the counters
+     */
+    public Map<String, Counter> counters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * Gets every histogram by name, in name order.
+     *
+     * @return A read-only live view of the histograms
+     */
+    public Map<String, Histogram> histograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * Gets the time since this registry was created, for turning counts into rates.
+     *
+     * @return The uptime in nanoseconds
+     */
+    public long uptimeNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+}
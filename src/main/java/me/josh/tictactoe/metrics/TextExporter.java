@@ -0,0 +1,56 @@
+package me.josh.tictactoe.metrics;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes a registry as plain text, one metric per line in name order, e.g.
+ * <pre>
+ * game.finished                 20000  (18453.2/s)
+ * ai.move.nanos.negamax         count=90112 mean=212 p50=191 p90=319 p99=767 max=48511
+ * </pre>
+ * Counters show their rate since the registry was created.
+ */
+public class TextExporter implements MetricsExporter {
+
+    private final Appendable out;
+
+    /**
+     * Creates an exporter.
+     *
+     * @param out Where to write, e.g. {@code System.out}
+     */
+    public TextExporter(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public void export(MetricsRegistry registry) throws IOException {
+        out.append(format(registry));
+    }
+
+    /**
+     * Formats a registry as text.
+     *
+     * @param registry The registry
+     * @return The metrics, one per line
+     */
+    public static String format(MetricsRegistry registry) {
+        StringBuilder sb = new StringBuilder();
+        double seconds = registry.uptimeNanos() / 1e9;
+
+        for (Map.Entry<String, Counter> entry : registry.counters().entrySet()) {
+            long value = entry.getValue().get();
+            sb.append(String.format(Locale.ROOT, "%-30s %12d  (%.1f/s)%n", entry.getKey(), value, value / seconds));
+        }
+        for (Map.Entry<String, Histogram> entry : registry.histograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            sb.append(String.format(Locale.ROOT, "%-30s count=%d mean=%.0f p50=%d p90=%d p99=%d max=%d%n",
+                    entry.getKey(), histogram.count(), histogram.mean(), histogram.percentile(50),
+                    histogram.percentile(90), histogram.percentile(99), histogram.max()));
+        }
+        return sb.toString();
+    }
+
+}
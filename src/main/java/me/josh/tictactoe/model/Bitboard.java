@@ -0,0 +1,106 @@
+package me.josh.tictactoe.model;
+
+/**
+ * Bitboard helpers for the 3x3 board.
+ * Each side's stones are packed into the low 9 bits of an int, where cell (row, col)
+ * maps to bit (row * 3 + col). Win and draw checks then become simple mask comparisons.
+ */
+public final class Bitboard {
+
+    /** Number of cells on the board */
+    public static final int CELLS = 9;
+
+    /** Mask with every cell set, used to detect a full board */
+    public static final int FULL_MASK = (1 << CELLS) - 1;
+
+    /** The 8 winning lines: 3 rows, 3 columns and 2 diagonals */
+    public static final int[] WIN_MASKS = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000, // rows
+            0b001_001_001, 0b010_010_010, 0b100_100_100, // columns
+            0b100_010_001, 0b001_010_100                 // diagonals
+    };
+
+    /** For each cell, the winning lines that pass through it (2 to 4 lines per cell) */
+    private static final int[][] CELL_WIN_MASKS = new int[CELLS][];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int count = 0;
+            for (int mask : WIN_MASKS) {
+                if ((mask & (1 << cell)) != 0) count++;
+            }
+
+            int[] masks = new int[count];
+            int i = 0;
+            for (int mask : WIN_MASKS) {
+                if ((mask & (1 << cell)) != 0) masks[i++] = mask;
+            }
+            CELL_WIN_MASKS[cell] = masks;
+        }
+    }
+
+    private Bitboard() {
+    }
+
+    /**
+     * Gets the cell index for a board position.
+     *
+     * @param row The row (0-2)
+     * @param col The column (0-2)
+     * @return The cell index (0-8)
+     */
+    public static int index(int row, int col) {
+        return row * 3 + col;
+    }
+
+    /**
+     * Gets the single-bit mask for a board position.
+     *
+     * @param row The row (0-2)
+     * @param col The column (0-2)
+     * @return A mask with only that cell's bit set
+     */
+    public static int bit(int row, int col) {
+        return 1 << index(row, col);
+    }
+
+    /**
+     * Checks whether the given stones contain any winning line.
+     *
+     * @param bits The stones of one side
+     * @return true if any row, column or diagonal is complete
+     */
+    public static boolean hasWin(int bits) {
+        for (int mask : WIN_MASKS) {
+            if ((bits & mask) == mask) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a stone just placed at a cell completed a winning line.
+     * Only the lines through that cell are tested.
+     *
+     * @param bits The stones of the side that just moved (including the new stone)
+     * @param cell The cell index where the stone was placed
+     * @return true if a line through the cell is complete
+     */
+    public static boolean isWinningCell(int bits, int cell) {
+        for (int mask : CELL_WIN_MASKS[cell]) {
+            if ((bits & mask) == mask) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether every cell is occupied.
+     *
+     * @param xBits The X stones
+     * @param oBits The O stones
+     * @return true if no empty cells remain
+     */
+    public static boolean isFull(int xBits, int oBits) {
+        return (xBits | oBits) == FULL_MASK;
+    }
+
+}
@@ -0,0 +1,426 @@
+package me.josh.tictactoe.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes the shape of an m,n,k game: a board of rows x cols cells where
+ * winLength stones in a row (horizontally, vertically or diagonally) win.<br>
+ * Stones are stored as bitboards in long arrays, with cell (row, col) at bit index
+ * (row * cols + col). This class holds the precomputed data for one shape and the
+ * bit operations on such arrays; instances are immutable and shared between games.<br>
+ * It also describes the symmetries of the board (8 for square boards, 4 otherwise) and the
+ * Zobrist keys used to hash positions, so equivalent positions can share cache entries.
+ */
+public final class BoardGeometry {
+
+    /** The four line directions as {rowStep, colStep}: horizontal, vertical, diagonal, anti-diagonal */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** The classic 3x3, three-in-a-row board */
+    public static final BoardGeometry STANDARD = new BoardGeometry(3, 3, 3);
+
+    /** Shared instances, so precomputed data is built once per shape */
+    private static final Map<Long, BoardGeometry> CACHE = new ConcurrentHashMap<>();
+
+    /** Number of rows */
+    public final int rows;
+
+    /** Number of columns */
+    public final int cols;
+
+    /** Number of stones in a row needed to win */
+    public final int winLength;
+
+    /** Total number of cells (rows * cols) */
+    public final int cells;
+
+    /** Number of longs needed to hold one bit per cell */
+    public final int words;
+
+    /**
+     * A random key for the board shape, for telling positions of different shapes apart
+     * where their hashes are compared, since the empty board hashes to 0 on every shape.
+     */
+    public final long shapeKey;
+
+    /**
+     * For boards of at most 64 cells, the winning windows through each cell as single-word masks.
+     * Null for larger boards, which scan the four lines through the cell instead.
+     */
+    private final long[][] cellWinMasks;
+
+    /**
+     * SYMMETRIES[t][cell] is where the cell lands under symmetry t. Square boards use all 8 in the
+     * order: identity, rotate 90, rotate 180, rotate 270, mirror left-right, mirror top-bottom,
+     * main diagonal, anti diagonal. Other boards use identity, rotate 180, mirror left-right
+     * and mirror top-bottom.
+     */
+    private final int[][] symmetries;
+
+    /**
+     * Zobrist keys per symmetry: symmetryKeys[t][cell * 2 + s] is the key of symbol s
+     * (0 for X, 1 for O) placed on the image of the cell under symmetry t.
+     * Row 0 holds the plain keys.
+     */
+    private final long[][] symmetryKeys;
+
+    private BoardGeometry(int rows, int cols, int winLength) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.cells = rows * cols;
+        this.words = (cells + 63) >>> 6;
+        this.shapeKey = new SplittableRandom(((long) rows << 32) | ((long) cols << 16) | winLength).nextLong();
+        this.cellWinMasks = (cells <= 64) ? buildCellWinMasks() : null;
+        this.symmetries = buildSymmetries();
+        this.symmetryKeys = buildSymmetryKeys();
+    }
+
+    /**
+     * Gets the geometry for a board shape.
+     *
+     * @param rows The number of rows
+     * @param cols The number of columns
+     * @param winLength The number in a row needed to win
+     * @return The shared geometry for that shape
+     * @throws IllegalArgumentException if the shape is empty or the win length does not fit on the board
+     */
+    public static BoardGeometry of(int rows, int cols, int winLength) {
+        if (rows < 1 || cols < 1 || rows > 0xFFFF / cols) {
+            throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+        }
+        if (winLength < 1 || winLength > Math.max(rows, cols)) {
+            throw new IllegalArgumentException("Invalid win length " + winLength + " for " + rows + "x" + cols);
+        }
+        if (rows == 3 && cols == 3 && winLength == 3) {
+            return STANDARD;
+        }
+
+        long key = ((long) rows << 32) | ((long) cols << 16) | winLength;
+        return CACHE.computeIfAbsent(key, k -> new BoardGeometry(rows, cols, winLength));
+    }
+
+    /**
+     * Checks whether this is the classic 3x3 board, which the {@link Bitboard} helpers handle.
+     *
+     * @return true for 3x3 with three in a row
+     */
+    public boolean isStandard() {
+        return this == STANDARD;
+    }
+
+    /**
+     * Checks whether a position lies on the board.
+     *
+     * @param row The row
+     * @param col The column
+     * @return true if the position is in bounds
+     */
+    public boolean contains(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * Gets the cell index for a board position.
+     *
+     * @param row The row
+     * @param col The column
+     * @return The cell index
+     */
+    public int index(int row, int col) {
+        return row * cols + col;
+    }
+
+    /**
+     * Gets the row of a cell index.
+     *
+     * @param index The cell index
+     * @return The row
+     */
+    public int row(int index) {
+        return index / cols;
+    }
+
+    /**
+     * Gets the column of a cell index.
+     *
+     * @param index The cell index
+     * @return The column
+     */
+    public int col(int index) {
+        return index % cols;
+    }
+
+    /**
+     * Creates an empty bitboard sized for this geometry.
+     *
+     * @return A zeroed array of {@link #words} longs
+     */
+    public long[] newBits() {
+        return new long[words];
+    }
+
+    /**
+     * Gets the mask of bits in a word that correspond to cells on the board.
+     *
+     * @param word The word index
+     * @return All ones, except for the unused high bits of the last word
+     */
+    public long wordMask(int word) {
+        int used = cells - (word << 6);
+        return (used >= 64) ? -1L : (1L << used) - 1;
+    }
+
+    /**
+     * Checks whether a cell is set in a bitboard.
+     *
+     * @param bits The bitboard
+     * @param index The cell index
+     * @return true if the bit for that cell is set
+     */
+    public static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets a cell in a bitboard.
+     *
+     * @param bits The bitboard
+     * @param index The cell index
+     */
+    public static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Clears a cell in a bitboard.
+     *
+     * @param bits The bitboard
+     * @param index The cell index
+     */
+    public static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Gets the number of symmetries of the board.
+     *
+     * @return 8 for square boards, 4 otherwise
+     */
+    public int symmetryCount() {
+        return symmetries.length;
+    }
+
+    /**
+     * Maps a cell through one of the board's symmetries.
+     *
+     * @param symmetry The symmetry (0 is the identity)
+     * @param index The cell index
+     * @return The index of the cell's image
+     */
+    public int transform(int symmetry, int index) {
+        return symmetries[symmetry][index];
+    }
+
+    /**
+     * Gets the symmetry that undoes another one.
+     *
+     * @param symmetry The symmetry
+     * @return Its inverse (only the quarter turns are not their own inverse)
+     */
+    public int inverse(int symmetry) {
+        if (symmetries.length == 8 && (symmetry == 1 || symmetry == 3)) {
+            return 4 - symmetry;
+        }
+        return symmetry;
+    }
+
+    /**
+     * Gets the Zobrist key for a stone on a cell, as seen through a symmetry.
+     * A position's hash is the XOR of the keys of all its stones; using symmetry t gives
+     * the hash of the position transformed by t. Keys are fixed per board shape, so
+     * hashes are stable between runs.
+     *
+     * @param symmetry The symmetry (0 for the plain hash)
+     * @param symbol The stone (X or O)
+     * @param index The cell index
+     * @return The key to XOR into the hash
+     */
+    public long zobristKey(int symmetry, Symbol symbol, int index) {
+        return symmetryKeys[symmetry][(index << 1) | (symbol == Symbol.X ? 0 : 1)];
+    }
+
+    /**
+     * Checks whether a stone just placed at a cell completed a winning line.
+     * Only the four lines through that cell are examined.
+     *
+     * @param bits The stones of the side that just moved (including the new stone)
+     * @param index The cell index where the stone was placed
+     * @return true if winLength or more stones now lie in a row through the cell
+     */
+    public boolean isWinningCell(long[] bits, int index) {
+        if (cellWinMasks != null) {
+            long word = bits[0];
+            for (long mask : cellWinMasks[index]) {
+                if ((word & mask) == mask) return true;
+            }
+            return false;
+        }
+
+        int row = index / cols;
+        int col = index % cols;
+        for (int[] dir : DIRECTIONS) {
+            int count = 1 + countRun(bits, row, col, dir[0], dir[1]) + countRun(bits, row, col, -dir[0], -dir[1]);
+            if (count >= winLength) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets every winning window on a board of at most 64 cells: each run of winLength cells
+     * along a row, column or diagonal, as a single-word mask. These are the windows
+     * {@link #isWinningCell} checks, so code working on them agrees with the game on every win.
+     *
+     * @return A new array holding each window once
+     * @throws IllegalStateException if the board has more than 64 cells
+     */
+    public long[] winMasks() {
+        if (cellWinMasks == null) {
+            throw new IllegalStateException("Boards over 64 cells have no single-word masks: " + this);
+        }
+
+        long[] masks = new long[4 * cells];
+        int count = 0;
+        for (int index = 0; index < cells; index++) {
+            for (long mask : cellWinMasks[index]) {
+                // Keep each window once, at its lowest cell
+                if (Long.numberOfTrailingZeros(mask) == index) masks[count++] = mask;
+            }
+        }
+        return Arrays.copyOf(masks, count);
+    }
+
+    /**
+     * Counts consecutive set cells starting next to a cell and moving in one direction.
+     * Stops early once a win is already guaranteed.
+     */
+    private int countRun(long[] bits, int row, int col, int rowStep, int colStep) {
+        int count = 0;
+        int r = row + rowStep;
+        int c = col + colStep;
+        while (count < winLength - 1 && r >= 0 && r < rows && c >= 0 && c < cols && get(bits, r * cols + c)) {
+            count++;
+            r += rowStep;
+            c += colStep;
+        }
+        return count;
+    }
+
+    /**
+     * Builds, for each cell, the masks of every winning window that contains it.
+     */
+    private long[][] buildCellWinMasks() {
+        long[][] masks = new long[cells][];
+        long[] buffer = new long[4 * winLength];
+
+        for (int index = 0; index < cells; index++) {
+            int row = index / cols;
+            int col = index % cols;
+            int count = 0;
+
+            for (int[] dir : DIRECTIONS) {
+                // Every window of winLength cells along this direction that covers the cell
+                for (int offset = 0; offset < winLength; offset++) {
+                    int startRow = row - offset * dir[0];
+                    int startCol = col - offset * dir[1];
+                    int endRow = startRow + (winLength - 1) * dir[0];
+                    int endCol = startCol + (winLength - 1) * dir[1];
+                    if (!contains(startRow, startCol) || !contains(endRow, endCol)) continue;
+
+                    long mask = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        mask |= 1L << index(startRow + i * dir[0], startCol + i * dir[1]);
+                    }
+                    buffer[count++] = mask;
+                }
+
+                // A single stone is one window in every direction, so only keep it once
+                if (winLength == 1) break;
+            }
+
+            long[] cellMasks = new long[count];
+            System.arraycopy(buffer, 0, cellMasks, 0, count);
+            masks[index] = cellMasks;
+        }
+        return masks;
+    }
+
+    /**
+     * Builds the cell permutation of each board symmetry.
+     */
+    private int[][] buildSymmetries() {
+        boolean square = rows == cols;
+        int[][] result = new int[square ? 8 : 4][cells];
+        int lastRow = rows - 1;
+        int lastCol = cols - 1;
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int index = index(row, col);
+                result[0][index] = index;
+                if (square) {
+                    result[1][index] = index(col, lastRow - row);
+                    result[2][index] = index(lastRow - row, lastCol - col);
+                    result[3][index] = index(lastCol - col, row);
+                    result[4][index] = index(row, lastCol - col);
+                    result[5][index] = index(lastRow - row, col);
+                    result[6][index] = index(col, row);
+                    result[7][index] = index(lastCol - col, lastRow - row);
+                } else {
+                    result[1][index] = index(lastRow - row, lastCol - col);
+                    result[2][index] = index(row, lastCol - col);
+                    result[3][index] = index(lastRow - row, col);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the Zobrist keys from a seed derived from the board shape.
+     */
+    private long[][] buildSymmetryKeys() {
+        SplittableRandom random = new SplittableRandom(((long) rows << 42) ^ ((long) cols << 21) ^ winLength);
+        long[] keys = new long[cells * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+
+        long[][] result = new long[symmetries.length][];
+        result[0] = keys;
+        for (int t = 1; t < symmetries.length; t++) {
+            long[] moved = new long[cells * 2];
+            for (int index = 0; index < cells; index++) {
+                int image = symmetries[t][index];
+                moved[index << 1] = keys[image << 1];
+                moved[(index << 1) | 1] = keys[(image << 1) | 1];
+            }
+            result[t] = moved;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a description of this shape.
+     *
+     * @return e.g. "15x15, 5 in a row"
+     */
+    @Override
+    public String toString() {
+        return rows + "x" + cols + ", " + winLength + " in a row";
+    }
+
+}
@@ -0,0 +1,324 @@
+package me.josh.tictactoe.model;
+
+import me.josh.tictactoe.model.player.Player;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers a game's events to its {@link GameObserver}s.<br>
+ * Registration is copy-on-write: the game reads one volatile array per event and never
+ * locks, so observers can be added or removed from any thread, even while the game is
+ * delivering events. With no observers an event costs a single array read.<br>
+ * The events caused by one move are delivered together as one batch: each observer gets
+ * onMoveMade followed by onGameOver or onTurnChanged before the next observer is called.<br>
+ * Observers added with {@link #addAsync} are called on another thread. Their batches go
+ * through a bounded ring buffer of their own, so a slow observer delays only itself; the
+ * game waits only when that observer falls a whole buffer behind. Async observers must
+ * work from the event arguments alone, since the game has moved on by the time they run.
+ */
+public final class GameEventBus {
+
+    /** Default ring buffer size of async observers, in batches */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Subscriber[] NONE = new Subscriber[0];
+
+    /** Kinds of batch held in a ring slot */
+    private static final byte MOVE = 0;
+    private static final byte UNDO = 1;
+    private static final byte RESET = 2;
+
+    /** Runs async deliveries when no executor is given, created when first needed */
+    private static volatile ExecutorService sharedExecutor;
+
+    /** The registered observers, replaced as a whole on every change */
+    private volatile Subscriber[] subscribers = NONE;
+
+    /**
+     * Registers an observer that is called on the thread making the moves.
+     *
+     * @param observer The observer
+     */
+    public void add(GameObserver observer) {
+        register(new Subscriber(observer));
+    }
+
+    /**
+     * Registers an observer that is called on a shared background thread,
+     * with a ring buffer of {@link #DEFAULT_CAPACITY} batches.
+     *
+     * @param observer The observer
+     */
+    public void addAsync(GameObserver observer) {
+        addAsync(observer, sharedExecutor(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Registers an observer that is called through the given executor.
+     * Batches are delivered in order and never concurrently. The executor must run tasks
+     * on a thread other than the game's, e.g. {@code SwingUtilities::invokeLater} for a
+     * view that is not updated from the event dispatch thread.
+     *
+     * @param observer The observer
+     * @param executor Runs the deliveries
+     * @param capacity The ring buffer size in batches, rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public void addAsync(GameObserver observer, Executor executor, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        register(new AsyncSubscriber(observer, executor, capacity));
+    }
+
+    /**
+     * Unregisters the first registration of an observer, synchronous or async.
+     * An async observer still receives the batches already queued for it.
+     *
+     * @param observer The observer
+     * @return true if the observer was registered
+     */
+    public synchronized boolean remove(GameObserver observer) {
+        Subscriber[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].observer.equals(observer)) {
+                Subscriber[] next = new Subscriber[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, next.length - i);
+                subscribers = next;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of registered observers.
+     *
+     * @return The observer count
+     */
+    public int size() {
+        return subscribers.length;
+    }
+
+    private synchronized void register(Subscriber subscriber) {
+        Subscriber[] current = subscribers;
+        Subscriber[] next = new Subscriber[current.length + 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        next[current.length] = subscriber;
+        subscribers = next;
+    }
+
+    /**
+     * Delivers the batch for one move: the move, then either the end of the game or the next turn.
+     *
+     * @param row The row where the move was made
+     * @param col The column where the move was made
+     * @param symbol The symbol that was placed
+     * @param gameOver Whether the move ended the game
+     * @param player The winner (null for a draw) if the game is over, otherwise the player to move
+     */
+    void publishMove(int row, int col, Symbol symbol, boolean gameOver, Player player) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.move(row, col, symbol, gameOver, player);
+        }
+    }
+
+    /**
+     * Delivers the batch for an undone move: the cleared cell, then the player to move again.
+     *
+     * @param row The row of the cell that was cleared
+     * @param col The column of the cell that was cleared
+     * @param symbol The symbol that was removed
+     * @param player The player whose turn it is again
+     */
+    void publishUndo(int row, int col, Symbol symbol, Player player) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.undo(row, col, symbol, player);
+        }
+    }
+
+    /**
+     * Delivers a game reset.
+     */
+    void publishReset() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.reset();
+        }
+    }
+
+    private static ExecutorService sharedExecutor() {
+        ExecutorService executor = sharedExecutor;
+        if (executor == null) {
+            synchronized (GameEventBus.class) {
+                executor = sharedExecutor;
+                if (executor == null) {
+                    executor = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable, "game-events");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    sharedExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * An observer called directly on the game's thread.
+     */
+    private static class Subscriber {
+
+        final GameObserver observer;
+
+        Subscriber(GameObserver observer) {
+            this.observer = observer;
+        }
+
+        void move(int row, int col, Symbol symbol, boolean gameOver, Player player) {
+            observer.onMoveMade(row, col, symbol);
+            if (gameOver) {
+                observer.onGameOver(player);
+            } else {
+                observer.onTurnChanged(player);
+            }
+        }
+
+        void undo(int row, int col, Symbol symbol, Player player) {
+            observer.onMoveUndone(row, col, symbol);
+            observer.onTurnChanged(player);
+        }
+
+        void reset() {
+            observer.onGameReset();
+        }
+
+    }
+
+    /**
+     * An observer called through an executor, fed by a single-producer ring buffer.<br>
+     * Each slot holds one whole batch in parallel arrays, so publishing allocates nothing.
+     * The game writes a slot and then advances {@code published}; a drain task, scheduled
+     * only when the observer is idle, delivers every published slot and advances {@code consumed}.
+     */
+    private static final class AsyncSubscriber extends Subscriber implements Runnable {
+
+        private final Executor executor;
+        private final int mask;
+
+        private final byte[] kinds;
+        private final int[] rows;
+        private final int[] cols;
+        private final Symbol[] symbols;
+        private final boolean[] overs;
+        private final Player[] players;
+
+        /** Batches written by the game, and batches delivered to the observer */
+        private volatile long published;
+        private volatile long consumed;
+
+        /** Whether a drain task is queued or running */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        AsyncSubscriber(GameObserver observer, Executor executor, int capacity) {
+            super(observer);
+            this.executor = executor;
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.mask = size - 1;
+            this.kinds = new byte[size];
+            this.rows = new int[size];
+            this.cols = new int[size];
+            this.symbols = new Symbol[size];
+            this.overs = new boolean[size];
+            this.players = new Player[size];
+        }
+
+        @Override
+        void move(int row, int col, Symbol symbol, boolean gameOver, Player player) {
+            publish(MOVE, row, col, symbol, gameOver, player);
+        }
+
+        @Override
+        void undo(int row, int col, Symbol symbol, Player player) {
+            publish(UNDO, row, col, symbol, false, player);
+        }
+
+        @Override
+        void reset() {
+            publish(RESET, 0, 0, null, false, null);
+        }
+
+        private void publish(byte kind, int row, int col, Symbol symbol, boolean gameOver, Player player) {
+            long sequence = published;
+            awaitSpace(sequence);
+
+            int slot = (int) sequence & mask;
+            kinds[slot] = kind;
+            rows[slot] = row;
+            cols[slot] = col;
+            symbols[slot] = symbol;
+            overs[slot] = gameOver;
+            players[slot] = player;
+            published = sequence + 1;
+
+            schedule();
+        }
+
+        /**
+         * Waits until the observer has taken the batch that last used the next slot.
+         */
+        private void awaitSpace(long sequence) {
+            int spins = 0;
+            while (sequence - consumed > mask) {
+                if (spins++ < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(50_000);
+                }
+            }
+        }
+
+        private void schedule() {
+            if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Delivers every published batch, then goes idle.
+         */
+        @Override
+        public void run() {
+            do {
+                long next = consumed;
+                long end = published;
+                while (next < end) {
+                    int slot = (int) next & mask;
+                    Player player = players[slot];
+                    Symbol symbol = symbols[slot];
+                    symbols[slot] = null;
+                    players[slot] = null;
+                    try {
+                        switch (kinds[slot]) {
+                            case MOVE -> super.move(rows[slot], cols[slot], symbol, overs[slot], player);
+                            case UNDO -> super.undo(rows[slot], cols[slot], symbol, player);
+                            default -> super.reset();
+                        }
+                    } catch (RuntimeException e) {
+                        // One failing batch must not stop the ones after it
+                        Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                    consumed = ++next;
+                }
+                scheduled.set(false);
+                // A batch published after the last read of published, but before the flag was cleared, is ours
+            } while (published != consumed && scheduled.compareAndSet(false, true));
+        }
+
+    }
+
+}
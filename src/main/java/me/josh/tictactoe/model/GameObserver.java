@@ -31,6 +31,18 @@ public interface GameObserver {
      */
     void onTurnChanged(Player currentPlayer);
 
+    /**
+     * Called when a move is taken back. The turn-change event that follows names the
+     * player who made the move, whose turn it is again.
+     * Observers that never see undo (e.g. headless games) can ignore it.
+     *
+     * @param row The row of the cell that was cleared
+     * @param col The column of the cell that was cleared
+     * @param symbol The symbol that was removed
+     */
+    default void onMoveUndone(int row, int col, Symbol symbol) {
+    }
+
     /**
      * Called when the game is reset.
      */
@@ -0,0 +1,239 @@
+package me.josh.tictactoe.model;
+
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerFactory;
+import me.josh.tictactoe.model.player.PlayerType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary snapshots of a game, for checkpointing sessions, moving them between
+ * servers and resuming them after a restart.<br>
+ * A snapshot holds the board shape, the player types and the move history, including
+ * undone moves that can still be redone. The board, turn, winner and hashes are rebuilt
+ * from the moves on restore, so nothing derived is stored and a snapshot can never
+ * describe an impossible position.<br>
+ * Layout: flags (u8: format version in bits 0-3, {@link #PLAYER1_IS_O}, {@link #CUSTOM_BOARD}),
+ * player types (u8: player 1 in the low nibble, player 2 in the high nibble, as
+ * {@link PlayerType} ordinals), then rows, cols and winLength (u16 each, little-endian) unless
+ * the board is the classic 3x3 one. Then a bit stream packed from the lowest bit up: the
+ * history length and the number of undone moves, then each move of the history as a cell index.
+ * Counts and moves use just enough bits for the board, 4 on 3x3 and 8 on 15x15, so a full
+ * classic game takes 8 bytes and a 60-move game on 15x15 takes 70.<br>
+ * Snapshots only read the game, so a hosted game can be snapshotted inside its own session
+ * without holding up any other game.
+ */
+public final class GameSnapshot {
+
+    /** Current format version */
+    public static final int VERSION = 1;
+
+    /** Flag bit set when player 1 plays O */
+    public static final int PLAYER1_IS_O = 1 << 4;
+
+    /** Flag bit set when the board size follows the flags, i.e. it is not 3x3 */
+    public static final int CUSTOM_BOARD = 1 << 5;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * Gets the exact length of a game's snapshot.
+     *
+     * @param game The game
+     * @return The snapshot length in bytes
+     */
+    public static int length(TicTacToeGame game) {
+        BoardGeometry geometry = game.geometry;
+        long bits = 2L * countBits(geometry) + (long) game.getHistoryLength() * moveBits(geometry);
+        return headerLength(geometry) + (int) ((bits + 7) / 8);
+    }
+
+    /**
+     * Takes a snapshot of a game.
+     *
+     * @param game The game
+     * @return The snapshot
+     */
+    public static byte[] save(TicTacToeGame game) {
+        byte[] snapshot = new byte[length(game)];
+        write(game, ByteBuffer.wrap(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Writes a snapshot of a game at the buffer's position.
+     *
+     * @param game The game
+     * @param buffer A buffer with at least {@link #length} bytes remaining
+     */
+    public static void write(TicTacToeGame game, ByteBuffer buffer) {
+        BoardGeometry geometry = game.geometry;
+        int flags = VERSION;
+        if (game.player1.symbol == Symbol.O) flags |= PLAYER1_IS_O;
+        if (!geometry.isStandard()) flags |= CUSTOM_BOARD;
+
+        buffer.put((byte) flags);
+        buffer.put((byte) (PlayerType.of(game.player1).ordinal() | PlayerType.of(game.player2).ordinal() << 4));
+        if (!geometry.isStandard()) {
+            putU16(buffer, geometry.rows);
+            putU16(buffer, geometry.cols);
+            putU16(buffer, geometry.winLength);
+        }
+
+        int countBits = countBits(geometry);
+        int moveBits = moveBits(geometry);
+        int length = game.getHistoryLength();
+
+        long pending = length | (long) (length - game.getMoveCount()) << countBits;
+        int pendingBits = 2 * countBits;
+        for (int ply = 0; ; ply++) {
+            while (pendingBits >= 8) {
+                buffer.put((byte) pending);
+                pending >>>= 8;
+                pendingBits -= 8;
+            }
+            if (ply == length) break;
+            pending |= (long) game.historyAt(ply) << pendingBits;
+            pendingBits += moveBits;
+        }
+        if (pendingBits > 0) {
+            buffer.put((byte) pending);
+        }
+    }
+
+    /**
+     * Restores a game from a snapshot, creating players of the stored types.
+     * Human and remote players get the names "Player 1" and "Player 2".
+     *
+     * @param snapshot The snapshot
+     * @return The restored game, with no observers
+     * @throws IllegalArgumentException if the snapshot is malformed
+     */
+    public static TicTacToeGame restore(byte[] snapshot) {
+        return read(ByteBuffer.wrap(snapshot), null, null);
+    }
+
+    /**
+     * Restores a game from a snapshot with the given players.
+     *
+     * @param snapshot The snapshot
+     * @param player1 The first player; must play the symbol stored in the snapshot
+     * @param player2 The second player
+     * @return The restored game, with no observers
+     * @throws IllegalArgumentException if the snapshot is malformed or the symbols do not match
+     */
+    public static TicTacToeGame restore(byte[] snapshot, Player player1, Player player2) {
+        return read(ByteBuffer.wrap(snapshot), player1, player2);
+    }
+
+    /**
+     * Reads a snapshot at the buffer's position and restores the game.
+     *
+     * @param buffer The buffer, left after the snapshot
+     * @param player1 The first player, or null to create both players from the stored types
+     * @param player2 The second player, or null with player1
+     * @return The restored game, with no observers
+     * @throws IllegalArgumentException if the snapshot is malformed or the symbols do not match
+     */
+    public static TicTacToeGame read(ByteBuffer buffer, Player player1, Player player2) {
+        try {
+            int flags = buffer.get() & 0xFF;
+            if ((flags & 0x0F) != VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version " + (flags & 0x0F));
+            }
+            int types = buffer.get() & 0xFF;
+            BoardGeometry geometry = ((flags & CUSTOM_BOARD) != 0)
+                    ? BoardGeometry.of(getU16(buffer), getU16(buffer), getU16(buffer))
+                    : BoardGeometry.STANDARD;
+
+            Symbol first = ((flags & PLAYER1_IS_O) != 0) ? Symbol.O : Symbol.X;
+            if (player1 == null) {
+                player1 = PlayerFactory.createPlayer(playerType(types & 0x0F), first, "Player 1");
+                player2 = PlayerFactory.createPlayer(playerType(types >>> 4), first.opposite(), "Player 2");
+            } else if (player1.symbol != first || player2.symbol != first.opposite()) {
+                throw new IllegalArgumentException("Snapshot has player 1 playing " + first);
+            }
+
+            TicTacToeGame game = new TicTacToeGame(player1, player2, geometry);
+            int countBits = countBits(geometry);
+            int moveBits = moveBits(geometry);
+
+            long pending = 0;
+            int pendingBits = 0;
+            while (pendingBits < 2 * countBits) {
+                pending |= (long) (buffer.get() & 0xFF) << pendingBits;
+                pendingBits += 8;
+            }
+            int countMask = (1 << countBits) - 1;
+            int length = (int) pending & countMask;
+            int undone = (int) (pending >>> countBits) & countMask;
+            pending >>>= 2 * countBits;
+            pendingBits -= 2 * countBits;
+            if (length > geometry.cells || undone > length) {
+                throw new IllegalArgumentException("Bad snapshot history: " + length + " moves, " + undone + " undone");
+            }
+
+            // Replay the whole history, then take back the undone moves so they can be redone
+            int moveMask = (1 << moveBits) - 1;
+            for (int ply = 0; ply < length; ply++) {
+                while (pendingBits < moveBits) {
+                    pending |= (long) (buffer.get() & 0xFF) << pendingBits;
+                    pendingBits += 8;
+                }
+                int cell = (int) pending & moveMask;
+                pending >>>= moveBits;
+                pendingBits -= moveBits;
+                if (!game.push(cell)) {
+                    throw new IllegalArgumentException("Bad snapshot move " + cell + " at ply " + ply);
+                }
+            }
+            for (int i = 0; i < undone; i++) {
+                game.pop();
+            }
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated snapshot", e);
+        }
+    }
+
+    /**
+     * Gets the length of the flags, player types and board size.
+     */
+    private static int headerLength(BoardGeometry geometry) {
+        return geometry.isStandard() ? 2 : 8;
+    }
+
+    /**
+     * Gets the bits used for the history counts, enough for 0 to cells.
+     */
+    private static int countBits(BoardGeometry geometry) {
+        return 32 - Integer.numberOfLeadingZeros(geometry.cells);
+    }
+
+    /**
+     * Gets the bits used for each move, enough for any cell index.
+     */
+    private static int moveBits(BoardGeometry geometry) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(geometry.cells - 1));
+    }
+
+    private static PlayerType playerType(int ordinal) {
+        PlayerType[] types = PlayerType.values();
+        if (ordinal >= types.length) {
+            throw new IllegalArgumentException("Unknown player type " + ordinal);
+        }
+        return types[ordinal];
+    }
+
+    private static void putU16(ByteBuffer buffer, int value) {
+        buffer.put((byte) value);
+        buffer.put((byte) (value >>> 8));
+    }
+
+    private static int getU16(ByteBuffer buffer) {
+        return (buffer.get() & 0xFF) | (buffer.get() & 0xFF) << 8;
+    }
+
+}
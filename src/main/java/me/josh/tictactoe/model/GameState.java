@@ -0,0 +1,89 @@
+package me.josh.tictactoe.model;
+
+/**
+ * Read-only view of a game in progress.
+ * Players decide their moves from this view instead of from a copy of the board,
+ * so asking a player for a move does not allocate.<br>
+ * Cells are addressed either by (row, col) or by their index (row * cols + col),
+ * which is also how moves are encoded; see {@link BoardGeometry}.
+ */
+public interface GameState {
+
+    /**
+     * Gets the shape of the board.
+     *
+     * @return The board geometry
+     */
+    BoardGeometry getGeometry();
+
+    /**
+     * Gets the symbol at a specific board position.
+     *
+     * @param row The row (0 to rows - 1)
+     * @param col The column (0 to cols - 1)
+     * @return The symbol at that position
+     */
+    Symbol getSymbolAt(int row, int col);
+
+    /**
+     * Gets the symbol in a cell.
+     *
+     * @param index The cell index (0 to cells - 1)
+     * @return The symbol in that cell
+     */
+    Symbol getSymbolAt(int index);
+
+    /**
+     * Gets one word of the bitboard of cells occupied by the given symbol.
+     * Bit i of word w stands for cell (w * 64 + i).
+     *
+     * @param symbol The symbol to look up (EMPTY gives the free cells)
+     * @param word The word index (0 to geometry.words - 1)
+     * @return The packed cells holding that symbol
+     */
+    long getBits(Symbol symbol, int word);
+
+    /**
+     * Gets the number of stones on the board.
+     *
+     * @return The number of moves made since the last reset
+     */
+    int getMoveCount();
+
+    /**
+     * Gets the Zobrist hash of the current position.
+     *
+     * @return The position hash (0 for the empty board)
+     */
+    long getHash();
+
+    /**
+     * Gets a hash that is the same for every rotation and reflection of the current position.
+     *
+     * @return The smallest hash over all symmetric variants
+     */
+    long getCanonicalHash();
+
+    /**
+     * Gets the symmetry that maps the current position onto its canonical form
+     * (see {@link BoardGeometry#transform}).
+     *
+     * @return The symmetry whose hash is {@link #getCanonicalHash()}
+     */
+    int getCanonicalSymmetry();
+
+    /**
+     * Gets the symbol of the player whose turn it is.
+     *
+     * @return X or O
+     */
+    Symbol getCurrentSymbol();
+
+    /**
+     * Checks whether the game has ended.
+     *
+     * @return true if the game is won or drawn
+     */
+    boolean isGameOver();
+
+}
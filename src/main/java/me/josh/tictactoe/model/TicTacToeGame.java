@@ -1,20 +1,46 @@
 package me.josh.tictactoe.model;
 
+import me.josh.tictactoe.metrics.GameMetrics;
 import me.josh.tictactoe.model.player.ComputerPlayer;
 import me.josh.tictactoe.model.player.HumanPlayer;
 import me.josh.tictactoe.model.player.Player;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Core game logic for Tic Tac Toe.
  * Manages the board state, players, turn tracking, and win/draw detection.
+ * Supports any m,n,k variant: the classic 3x3 board or larger boards with a longer winning line.
+ * Players see the game through its read-only {@link GameState} view.<br>
+ * Every move is kept in a history, so moves can be undone and redone in constant time.
+ * {@link #push} and {@link #pop} make and unmake moves without notifying observers,
+ * which lets a search walk the game tree on one private copy instead of copying the board per node.
  */
-public class TicTacToeGame {
+public class TicTacToeGame implements GameState {
 
-    /** The 3x3 game board */
-    private final Symbol[][] board;
+    /** The shape of the board and the number in a row needed to win */
+    public final BoardGeometry geometry;
+
+    /** Bitboard of cells occupied by X (see {@link BoardGeometry}) */
+    private final long[] xBits;
+
+    /** Bitboard of cells occupied by O (see {@link BoardGeometry}) */
+    private final long[] oBits;
+
+    /** Number of stones on the board, which is also the number of moves in the history that are played */
+    private int moveCount;
+
+    /** Cells played, in order; entries from moveCount up to historyLength can be redone */
+    private final int[] history;
+
+    /** Number of valid history entries */
+    private int historyLength;
+
+    /**
+     * Zobrist hash of the position under each board symmetry, updated on every move.
+     * Entry 0 is the plain hash; see {@link BoardGeometry#zobristKey}.
+     */
+    private final long[] hashes;
 
     /** The first player */
     public final Player player1;
@@ -32,16 +58,17 @@ public class TicTacToeGame {
     public Player winner = null;
 
     /**
-     * List of observers to notify of game events.<br>
-     * Observers can be registered by adding to this list (e.g., observers.add(observer))<br>
-     * and unregistered by removing from it (e.g., observers.remove(observer)).<br>
+     * The observers to notify of game events.<br>
+     * Observers can be registered with observers.add(observer), or observers.addAsync(observer)<br>
+     * to be called on a background thread, and unregistered with observers.remove(observer).<br>
      * Observers will be notified when:<br>
      * - A move is made (onMoveMade)<br>
      * - The game ends (onGameOver)<br>
      * - A turn changes (onTurnChanged)<br>
+     * - A move is undone (onMoveUndone)<br>
      * - The game is reset (onGameReset)
      */
-    public final List<GameObserver> observers = new ArrayList<>();
+    public final GameEventBus observers = new GameEventBus();
 
     /**
      * Creates a new Tic Tac Toe game with the given players.
@@ -51,156 +78,293 @@ public class TicTacToeGame {
      * @param player2 The second player
      */
     public TicTacToeGame(Player player1, Player player2) {
+        this(player1, player2, BoardGeometry.STANDARD);
+    }
+
+    /**
+     * Creates a new m,n,k game with the given players.
+     * Player 1 goes first.
+     *
+     * @param player1 The first player (goes first)
+     * @param player2 The second player
+     * @param rows The number of rows
+     * @param cols The number of columns
+     * @param winLength The number in a row needed to win
+     * @throws IllegalArgumentException if the board shape is invalid
+     */
+    public TicTacToeGame(Player player1, Player player2, int rows, int cols, int winLength) {
+        this(player1, player2, BoardGeometry.of(rows, cols, winLength));
+    }
+
+    /**
+     * Creates a new game on the given board shape.
+     * Player 1 goes first.
+     *
+     * @param player1 The first player (goes first)
+     * @param player2 The second player
+     * @param geometry The board shape
+     */
+    public TicTacToeGame(Player player1, Player player2, BoardGeometry geometry) {
         this.player1 = player1;
         this.player2 = player2;
         this.currentPlayer = player1;
-
-        // Initialize empty board
-        board = new Symbol[3][3];
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                board[row][col] = Symbol.EMPTY;
-            }
-        }
+        this.geometry = geometry;
+        this.xBits = geometry.newBits();
+        this.oBits = geometry.newBits();
+        this.history = new int[geometry.cells];
+        this.hashes = new long[geometry.symmetryCount()];
     }
 
     /**
-     * Notifies all observers that a move was made.
+     * Attempts to make a move at the specified position for the current player.
      *
-     * @param row The row where the move was made
-     * @param col The column where the move was made
-     * @param symbol The symbol that was placed
+     * @param row The row (0 to rows - 1)
+     * @param col The column (0 to cols - 1)
+     * @return true if the move was valid and made, false otherwise
      */
-    private void notifyMoveMade(int row, int col, Symbol symbol) {
-        for (GameObserver observer : observers) {
-            observer.onMoveMade(row, col, symbol);
+    public boolean makeMove(int row, int col) {
+        long start = GameMetrics.startMove();
+
+        // Check if game is already over
+        if (gameOver) {
+            GameMetrics.moveRejected();
+            return false;
+        }
+
+        // Validate move
+        if (!isValidMove(row, col)) {
+            GameMetrics.moveRejected();
+            return false;
         }
+
+        // Make the move
+        Symbol symbol = currentPlayer.symbol;
+        applyMove(geometry.index(row, col));
+        historyLength = moveCount;
+
+        GameMetrics.moveMade(start);
+        if (gameOver) {
+            GameMetrics.gameOver((winner == null) ? Symbol.EMPTY : winner.symbol, moveCount);
+        }
+
+        notifyMove(row, col, symbol);
+        return true;
     }
 
     /**
-     * Notifies all observers that the game has ended.
+     * Attempts to make a move in the given cell for the current player.
      *
-     * @param winner The winning player, or null if draw
+     * @param index The cell index (row * cols + col), as returned by {@link Player#getMove}
+     * @return true if the move was valid and made, false otherwise
      */
-    private void notifyGameOver(Player winner) {
-        for (GameObserver observer : observers) {
-            observer.onGameOver(winner);
+    public boolean makeMove(int index) {
+        if (index < 0 || index >= geometry.cells) {
+            GameMetrics.moveRejected();
+            return false;
         }
+        return makeMove(geometry.row(index), geometry.col(index));
     }
 
     /**
-     * Notifies all observers that the turn has changed.
+     * Places the current player's stone in an empty cell and updates the turn, winner and history.
+     * Observers are not notified.
      *
-     * @param currentPlayer The player whose turn it now is
+     * @param cell The cell index
      */
-    private void notifyTurnChanged(Player currentPlayer) {
-        for (GameObserver observer : observers) {
-            observer.onTurnChanged(currentPlayer);
+    private void applyMove(int cell) {
+        BoardGeometry.set(bitsOf(currentPlayer.symbol), cell);
+        history[moveCount] = cell;
+        moveCount++;
+        updateHashes(currentPlayer.symbol, cell);
+
+        if (checkWin(cell)) {
+            gameOver = true;
+            winner = currentPlayer;
+        } else if (isBoardFull()) {
+            gameOver = true; // winner stays null for a draw
+        } else {
+            switchPlayer();
         }
     }
 
     /**
-     * Notifies all observers that the game has been reset.
+     * Tells observers about a move that was just applied, and how the game continues.
      */
-    private void notifyGameReset() {
-        for (GameObserver observer : observers) {
-            observer.onGameReset();
-        }
+    private void notifyMove(int row, int col, Symbol symbol) {
+        // The winner is null for a draw
+        observers.publishMove(row, col, symbol, gameOver, gameOver ? winner : currentPlayer);
     }
 
     /**
-     * Attempts to make a move at the specified position for the current player.
+     * Takes back the last move, giving the turn back to the player who made it.
+     * Observers are told which cell was cleared and whose turn it is.
      *
-     * @param row The row (0-2)
-     * @param col The column (0-2)
-     * @return true if the move was valid and made, false otherwise
+     * @return true if a move was undone, false if there was none
      */
-    public boolean makeMove(int row, int col) {
-        // Check if game is already over
-        if (gameOver) {
+    public boolean undo() {
+        int cell = pop();
+        if (cell == Player.NO_MOVE) {
             return false;
         }
 
-        // Validate move
-        if (!isValidMove(row, col)) {
+        observers.publishUndo(geometry.row(cell), geometry.col(cell), currentPlayer.symbol, currentPlayer);
+        return true;
+    }
+
+    /**
+     * Plays the most recently undone move again.
+     * Observers see it as an ordinary move.
+     *
+     * @return true if a move was redone, false if there was none
+     */
+    public boolean redo() {
+        if (!canRedo()) {
             return false;
         }
 
-        // Make the move
-        board[row][col] = currentPlayer.symbol;
+        int cell = history[moveCount];
+        Symbol symbol = currentPlayer.symbol;
+        applyMove(cell);
+        notifyMove(geometry.row(cell), geometry.col(cell), symbol);
+        return true;
+    }
 
-        // Notify observers of the move
-        notifyMoveMade(row, col, currentPlayer.symbol);
+    /**
+     * Checks whether there is a move to undo.
+     *
+     * @return true if at least one move has been made
+     */
+    public boolean canUndo() {
+        return moveCount > 0;
+    }
 
-        // Check for win
-        if (checkWin()) {
-            gameOver = true;
-            winner = currentPlayer;
-            notifyGameOver(winner);
-            return true;
-        }
+    /**
+     * Checks whether there is an undone move to redo.
+     *
+     * @return true if a move was undone and no other move has been made since
+     */
+    public boolean canRedo() {
+        return moveCount < historyLength;
+    }
 
-        // Check for draw
-        if (isBoardFull()) {
-            gameOver = true;
-            notifyGameOver(null); // null indicates draw
-            return true;
+    /**
+     * Gets a move from the history.
+     *
+     * @param ply The move number, starting at 0 (less than {@link #getMoveCount()})
+     * @return The cell index played at that move
+     */
+    public int getHistoryMove(int ply) {
+        if (ply < 0 || ply >= moveCount) {
+            throw new IndexOutOfBoundsException("Move " + ply + " of " + moveCount);
         }
+        return history[ply];
+    }
 
-        // Switch turns
-        switchPlayer();
+    /**
+     * Gets the number of moves in the history, counting undone moves that can be redone.
+     *
+     * @return The history length, at least {@link #getMoveCount()}
+     */
+    int getHistoryLength() {
+        return historyLength;
+    }
 
+    /**
+     * Gets a history entry without bounds checks, including undone moves.
+     *
+     * @param ply The move number (less than {@link #getHistoryLength()})
+     * @return The cell index played at that move
+     */
+    int historyAt(int ply) {
+        return history[ply];
+    }
+
+    /**
+     * Makes a move without notifying observers, for searches.
+     * Undo it with {@link #pop()}. Like {@link #makeMove(int)}, it discards any moves
+     * that could have been redone.
+     *
+     * @param index The cell index
+     * @return true if the move was valid and made, false otherwise
+     */
+    public boolean push(int index) {
+        if (gameOver || index < 0 || index >= geometry.cells
+                || BoardGeometry.get(xBits, index) || BoardGeometry.get(oBits, index)) {
+            return false;
+        }
+        applyMove(index);
+        historyLength = moveCount;
         return true;
     }
 
+    /**
+     * Takes back the last move without notifying observers, for searches.
+     * Restores the board, hashes, turn, winner and game-over flag; the move stays in the
+     * history and can be redone.
+     *
+     * @return The cell index that was cleared, or {@link Player#NO_MOVE} if no moves were made
+     */
+    public int pop() {
+        if (moveCount == 0) {
+            return Player.NO_MOVE;
+        }
+
+        int cell = history[--moveCount];
+        Symbol symbol = BoardGeometry.get(xBits, cell) ? Symbol.X : Symbol.O;
+        BoardGeometry.clear(bitsOf(symbol), cell);
+        updateHashes(symbol, cell);
+
+        currentPlayer = (player1.symbol == symbol) ? player1 : player2;
+        gameOver = false;
+        winner = null;
+        return cell;
+    }
+
+    /**
+     * Creates an independent copy of this game with the same players and history
+     * but no observers, for searching without disturbing the real game.
+     *
+     * @return The copy
+     */
+    public TicTacToeGame copy() {
+        TicTacToeGame copy = new TicTacToeGame(player1, player2, geometry);
+        for (int ply = 0; ply < historyLength; ply++) {
+            copy.applyMove(history[ply]);
+        }
+        copy.historyLength = historyLength;
+        while (copy.moveCount > moveCount) {
+            copy.pop();
+        }
+        return copy;
+    }
+
     /**
      * Checks if a move at the given position is valid.
      *
-     * @param row The row (0-2)
-     * @param col The column (0-2)
+     * @param row The row (0 to rows - 1)
+     * @param col The column (0 to cols - 1)
      * @return true if the position is empty and in bounds
      */
     public boolean isValidMove(int row, int col) {
         // Check bounds
-        if (row < 0 || row > 2 || col < 0 || col > 2) {
+        if (!geometry.contains(row, col)) {
             return false;
         }
 
         // Check if cell is empty
-        return board[row][col] == Symbol.EMPTY;
+        int cell = geometry.index(row, col);
+        return !BoardGeometry.get(xBits, cell) && !BoardGeometry.get(oBits, cell);
     }
 
     /**
      * Checks if the current player has won the game.
+     * Only the lines through the cell just played can have been completed.
      *
-     * @return true if current player has three in a row
+     * @param cell The cell index of the move just made
+     * @return true if current player has enough in a row
      */
-    private boolean checkWin() {
-        Symbol s = currentPlayer.symbol;
-
-        // Check rows
-        for (int row = 0; row < 3; row++) {
-            if (board[row][0] == s && board[row][1] == s && board[row][2] == s) {
-                return true;
-            }
-        }
-
-        // Check columns
-        for (int col = 0; col < 3; col++) {
-            if (board[0][col] == s && board[1][col] == s && board[2][col] == s) {
-                return true;
-            }
-        }
-
-        // Check diagonals
-        if (board[0][0] == s && board[1][1] == s && board[2][2] == s) {
-            return true;
-        }
-        if (board[0][2] == s && board[1][1] == s && board[2][0] == s) {
-            return true;
-        }
-
-        return false;
+    private boolean checkWin(int cell) {
+        return geometry.isWinningCell(bitsOf(currentPlayer.symbol), cell);
     }
 
     /**
@@ -209,14 +373,23 @@ public class TicTacToeGame {
      * @return true if no empty cells remain
      */
     private boolean isBoardFull() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (board[row][col] == Symbol.EMPTY) {
-                    return false;
-                }
-            }
+        return moveCount == geometry.cells;
+    }
+
+    /**
+     * Gets the internal bitboard for a player's symbol.
+     */
+    private long[] bitsOf(Symbol symbol) {
+        return (symbol == Symbol.X) ? xBits : oBits;
+    }
+
+    /**
+     * Toggles a stone in the hash of every symmetric variant of the position.
+     */
+    private void updateHashes(Symbol symbol, int cell) {
+        for (int t = 0; t < hashes.length; t++) {
+            hashes[t] ^= geometry.zobristKey(t, symbol, cell);
         }
-        return true;
     }
 
     /**
@@ -224,7 +397,6 @@ public class TicTacToeGame {
      */
     private void switchPlayer() {
         currentPlayer = (currentPlayer == player1) ? player2 : player1;
-        notifyTurnChanged(currentPlayer);
     }
 
     /**
@@ -233,29 +405,141 @@ public class TicTacToeGame {
      */
     public void reset() {
         // Clear board
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                board[row][col] = Symbol.EMPTY;
-            }
-        }
+        Arrays.fill(xBits, 0L);
+        Arrays.fill(oBits, 0L);
+        Arrays.fill(hashes, 0L);
+        moveCount = 0;
+        historyLength = 0;
 
         currentPlayer = player1;
         gameOver = false;
         winner = null;
 
         // Notify observers of reset
-        notifyGameReset();
+        observers.publishReset();
     }
 
     /**
      * Gets the symbol at a specific board position.
      *
-     * @param row The row (0-2)
-     * @param col The column (0-2)
+     * @param row The row (0 to rows - 1)
+     * @param col The column (0 to cols - 1)
      * @return The symbol at that position
      */
+    @Override
     public Symbol getSymbolAt(int row, int col) {
-        return board[row][col];
+        return getSymbolAt(geometry.index(row, col));
+    }
+
+    /**
+     * Gets the symbol in a cell.
+     *
+     * @param index The cell index (0 to cells - 1)
+     * @return The symbol in that cell
+     */
+    @Override
+    public Symbol getSymbolAt(int index) {
+        if (BoardGeometry.get(xBits, index)) return Symbol.X;
+        if (BoardGeometry.get(oBits, index)) return Symbol.O;
+        return Symbol.EMPTY;
+    }
+
+    /**
+     * Gets one word of the bitboard of cells occupied by the given symbol.
+     * Bit i of word w stands for cell (w * 64 + i); see {@link BoardGeometry}.
+     * On the standard 3x3 board the whole board is the low 9 bits of word 0,
+     * in the layout used by {@link Bitboard}.
+     *
+     * @param symbol The symbol to look up (EMPTY gives the free cells)
+     * @param word The word index (0 to geometry.words - 1)
+     * @return The packed cells holding that symbol
+     */
+    @Override
+    public long getBits(Symbol symbol, int word) {
+        return switch (symbol) {
+            case X -> xBits[word];
+            case O -> oBits[word];
+            case EMPTY -> ~(xBits[word] | oBits[word]) & geometry.wordMask(word);
+        };
+    }
+
+    /**
+     * Gets the number of stones on the board.
+     *
+     * @return The number of moves made since the last reset
+     */
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets the Zobrist hash of the current position.
+     * Maintained incrementally, so this is a field read. The empty board hashes to 0.
+     *
+     * @return The position hash
+     */
+    @Override
+    public long getHash() {
+        return hashes[0];
+    }
+
+    /**
+     * Gets a hash that is the same for every rotation and reflection of the current position.
+     * Use it to key caches so symmetric positions share one entry.
+     *
+     * @return The smallest hash over all symmetric variants
+     */
+    @Override
+    public long getCanonicalHash() {
+        return hashes[getCanonicalSymmetry()];
+    }
+
+    /**
+     * Gets the symmetry that maps the current position onto its canonical form.
+     * A move {@code cell} in this position corresponds to
+     * {@code geometry.transform(symmetry, cell)} in the canonical position, and
+     * {@code geometry.transform(geometry.inverse(symmetry), cell)} maps back.
+     *
+     * @return The symmetry whose hash is {@link #getCanonicalHash()}
+     */
+    @Override
+    public int getCanonicalSymmetry() {
+        int best = 0;
+        for (int t = 1; t < hashes.length; t++) {
+            if (hashes[t] < hashes[best]) best = t;
+        }
+        return best;
+    }
+
+    /**
+     * Gets the shape of the board.
+     *
+     * @return The board geometry
+     */
+    @Override
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Gets the symbol of the player whose turn it is.
+     *
+     * @return The current player's symbol
+     */
+    @Override
+    public Symbol getCurrentSymbol() {
+        return currentPlayer.symbol;
+    }
+
+    /**
+     * Checks whether the game has ended.
+     *
+     * @return true if the game is won or drawn
+     */
+    @Override
+    public boolean isGameOver() {
+        return gameOver;
     }
 
     /**
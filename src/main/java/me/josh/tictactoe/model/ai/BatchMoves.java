@@ -0,0 +1,113 @@
+package me.josh.tictactoe.model.ai;
+
+import me.josh.tictactoe.model.Bitboard;
+import me.josh.tictactoe.model.GameState;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Chooses perfect-play moves for many 3x3 positions in one call.<br>
+ * Each position is packed into an int as {@code me | opp << 9}, seen from the side to move
+ * like {@link Negamax} and {@link PerfectPlayTable}. Answers come from the perfect-play
+ * table, whose lookup arrays fit in cache, so a batch is a tight loop of array reads with
+ * no dispatch, game objects or random numbers. Large batches are split into chunks
+ * of {@link #CHUNK_SIZE} positions and processed on the common fork-join pool.<br>
+ * Where several moves are optimal, the lowest cell index is chosen, so results are
+ * repeatable. Invalid, unreachable and finished positions get -1.
+ */
+public final class BatchMoves {
+
+    /** Positions processed by one task before it stops splitting */
+    public static final int CHUNK_SIZE = 4096;
+
+    private BatchMoves() {
+    }
+
+    /**
+     * Packs a position into the batch format.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @return The packed position
+     */
+    public static int pack(int me, int opp) {
+        return me | (opp << Bitboard.CELLS);
+    }
+
+    /**
+     * Packs the position of a 3x3 game into the batch format.
+     *
+     * @param state The game state
+     * @return The packed position, from the side to move
+     */
+    public static int pack(GameState state) {
+        int me = (int) state.getBits(state.getCurrentSymbol(), 0);
+        int opp = (int) state.getBits(state.getCurrentSymbol().opposite(), 0);
+        return pack(me, opp);
+    }
+
+    /**
+     * Chooses a move for every position, in parallel for large batches.
+     *
+     * @param boards The packed positions
+     * @param moves Receives the chosen cell index (0-8) or -1 for each position
+     * @throws IllegalArgumentException if moves is shorter than boards
+     */
+    public static void bestMoves(int[] boards, int[] moves) {
+        if (moves.length < boards.length) {
+            throw new IllegalArgumentException("Output holds " + moves.length + " moves for " + boards.length + " boards");
+        }
+        if (boards.length <= CHUNK_SIZE) {
+            bestMoves(boards, moves, 0, boards.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new BatchTask(boards, moves, 0, boards.length));
+        }
+    }
+
+    /**
+     * Chooses a move for a range of positions on the calling thread.
+     *
+     * @param boards The packed positions
+     * @param moves Receives the chosen cell index (0-8) or -1 for each position
+     * @param from The first position (inclusive)
+     * @param to The last position (exclusive)
+     */
+    public static void bestMoves(int[] boards, int[] moves, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int board = boards[i];
+            int optimal = PerfectPlayTable.bestMovesOrNone(board & Bitboard.FULL_MASK, board >>> Bitboard.CELLS);
+            moves[i] = (optimal == 0) ? -1 : Integer.numberOfTrailingZeros(optimal);
+        }
+    }
+
+    /**
+     * Processes a contiguous range of positions, splitting it in half until it is small enough.
+     */
+    private static final class BatchTask extends RecursiveAction {
+
+        private final int[] boards;
+        private final int[] moves;
+        private final int from;
+        private final int to;
+
+        BatchTask(int[] boards, int[] moves, int from, int to) {
+            this.boards = boards;
+            this.moves = moves;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(boards, moves, from, mid), new BatchTask(boards, moves, mid, to));
+            } else {
+                bestMoves(boards, moves, from, to);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,292 @@
+package me.josh.tictactoe.model.ai;
+
+import me.josh.tictactoe.metrics.Counter;
+import me.josh.tictactoe.metrics.MetricsRegistry;
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+
+/**
+ * Bounded, thread-safe cache of position evaluations shared by AI players.<br>
+ * Keys are 64-bit position hashes and values are ints whose meaning is up to the caller
+ * (e.g. a packed best move and score). Storage is set-associative: each key maps to one
+ * set of {@link #WAYS} slots held in primitive arrays, and a full set evicts with the CLOCK
+ * algorithm (a slot used since the hand last passed gets a second chance). Sets are guarded
+ * by a fixed number of striped locks, so threads rarely contend and memory never grows
+ * past the configured bound.<br>
+ * Lookups and evictions are counted in the {@link MetricsRegistry#shared() shared registry}
+ * as {@code <name>.hits}, {@code .misses} and {@code .evictions}; the shared cache is named
+ * {@code cache}.
+ */
+public final class EvaluationCache {
+
+    /** Slots per set */
+    public static final int WAYS = 4;
+
+    /** Returned by {@link #get} when the key is not cached */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    /** Entries in the shared cache; override with -Dtictactoe.cache.entries=N */
+    private static final int SHARED_ENTRIES = Integer.getInteger("tictactoe.cache.entries", 1 << 20);
+
+    /** Process-wide instance used by the AI players */
+    private static final EvaluationCache SHARED = new EvaluationCache(SHARED_ENTRIES, "cache");
+
+    /** Number of lock stripes (a power of two) */
+    private static final int STRIPES = 64;
+
+    /** Slot states */
+    private static final byte EMPTY = 0;
+    private static final byte PRESENT = 1;
+    private static final byte REFERENCED = 2;
+
+    /** Mixed into the key when O is to move, since the hash only describes the stones */
+    private static final long O_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final int[] values;
+    private final byte[] states;
+
+    /** CLOCK hand of each set (0 to WAYS - 1) */
+    private final byte[] hands;
+
+    private final int setMask;
+    private final Object[] locks = new Object[STRIPES];
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /**
+     * Creates a cache holding at most the given number of entries.
+     * The capacity is rounded down to a power of two (and at least one set).
+     *
+     * @param maxEntries The size bound
+     * @param name The prefix of the cache's metrics; caches with the same name share their counters
+     */
+    public EvaluationCache(int maxEntries, String name) {
+        MetricsRegistry registry = MetricsRegistry.shared();
+        this.hits = registry.counter(name + ".hits");
+        this.misses = registry.counter(name + ".misses");
+        this.evictions = registry.counter(name + ".evictions");
+
+        int sets = Integer.highestOneBit(Math.max(1, maxEntries / WAYS));
+        this.setMask = sets - 1;
+        this.keys = new long[sets * WAYS];
+        this.values = new int[sets * WAYS];
+        this.states = new byte[sets * WAYS];
+        this.hands = new byte[sets];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Gets the process-wide cache shared by all AI players.
+     *
+     * @return The shared cache
+     */
+    public static EvaluationCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Looks up a value.
+     *
+     * @param key The position key
+     * @return The cached value, or {@link #MISSING}
+     */
+    public int get(long key) {
+        int set = setOf(key);
+        int base = set * WAYS;
+        synchronized (locks[set & (STRIPES - 1)]) {
+            for (int i = base; i < base + WAYS; i++) {
+                if (states[i] != EMPTY && keys[i] == key) {
+                    states[i] = REFERENCED;
+                    hits.increment();
+                    return values[i];
+                }
+            }
+        }
+        misses.increment();
+        return MISSING;
+    }
+
+    /**
+     * Stores a value, replacing any existing value for the key.
+     * If the key's set is full, the CLOCK hand picks the entry to evict.
+     *
+     * @param key The position key
+     * @param value The value (anything but {@link #MISSING})
+     */
+    public void put(long key, int value) {
+        int set = setOf(key);
+        int base = set * WAYS;
+        synchronized (locks[set & (STRIPES - 1)]) {
+            int free = -1;
+            for (int i = base; i < base + WAYS; i++) {
+                if (states[i] == EMPTY) {
+                    if (free < 0) free = i;
+                } else if (keys[i] == key) {
+                    values[i] = value;
+                    states[i] = REFERENCED;
+                    return;
+                }
+            }
+
+            int slot = (free >= 0) ? free : evict(set);
+            keys[slot] = key;
+            values[slot] = value;
+            states[slot] = PRESENT;
+        }
+    }
+
+    /**
+     * Advances the set's CLOCK hand past referenced entries and returns the first unreferenced slot.
+     * Must be called holding the set's lock.
+     */
+    private int evict(int set) {
+        int base = set * WAYS;
+        int hand = hands[set];
+        while (states[base + hand] == REFERENCED) {
+            states[base + hand] = PRESENT;
+            hand = (hand + 1) & (WAYS - 1);
+        }
+        hands[set] = (byte) ((hand + 1) & (WAYS - 1));
+        evictions.increment();
+        return base + hand;
+    }
+
+    /**
+     * Removes every entry. Counters are kept.
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int set = stripe; set <= setMask; set += STRIPES) {
+                    for (int i = set * WAYS; i < (set + 1) * WAYS; i++) {
+                        states[i] = EMPTY;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the key for the position in a game: its canonical hash plus the board shape and the
+     * side to move. Positions that are rotations or reflections of each other share a key;
+     * positions on different board shapes do not, even where their hashes are equal.
+     *
+     * @param state The game state
+     * @return The position key
+     */
+    public static long positionKey(GameState state) {
+        long key = state.getCanonicalHash() ^ state.getGeometry().shapeKey;
+        return (state.getCurrentSymbol() == Symbol.O) ? key ^ O_TO_MOVE : key;
+    }
+
+    /**
+     * Looks up a cached best move for a position and the depth it was searched to.
+     * Moves are stored in the canonical orientation and mapped back to this position's orientation.
+     *
+     * @param state The game state
+     * @return The entry, to be read with {@link #move} and {@link #depth}, or {@link #MISSING}
+     */
+    public int getMove(GameState state) {
+        int entry = get(positionKey(state));
+        if (entry == MISSING) return MISSING;
+
+        BoardGeometry geometry = state.getGeometry();
+        int move = geometry.transform(geometry.inverse(state.getCanonicalSymmetry()), move(entry));
+        return move | (entry & ~0xFFFF);
+    }
+
+    /**
+     * Caches the best move for a position and the depth it was searched to,
+     * with the move stored in the canonical orientation.
+     *
+     * @param state The game state
+     * @param move The best move as a cell index
+     * @param depth The plies searched to find it; values above 0x7FFF are stored as 0x7FFF
+     */
+    public void putMove(GameState state, int move, int depth) {
+        int canonical = state.getGeometry().transform(state.getCanonicalSymmetry(), move);
+        put(positionKey(state), canonical | Math.min(depth, 0x7FFF) << 16);
+    }
+
+    /**
+     * Gets the move of an entry returned by {@link #getMove}.
+     *
+     * @param entry The entry
+     * @return The move as a cell index
+     */
+    public static int move(int entry) {
+        return entry & 0xFFFF;
+    }
+
+    /**
+     * Gets the search depth of an entry returned by {@link #getMove}.
+     *
+     * @param entry The entry
+     * @return The depth in plies
+     */
+    public static int depth(int entry) {
+        return entry >>> 16;
+    }
+
+    /**
+     * Gets the maximum number of entries.
+     *
+     * @return The capacity
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the number of lookups that found a value.
+     *
+     * @return The hit count
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that found nothing.
+     *
+     * @return The miss count
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of entries evicted to make room.
+     *
+     * @return The eviction count
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Computes the set index of a key, spreading the bits first so similar keys land far apart.
+     */
+    private int setOf(long key) {
+        long mixed = key * 0xBF58476D1CE4E5B9L;
+        return (int) (mixed ^ (mixed >>> 31)) & setMask;
+    }
+
+    /**
+     * Returns a summary of the cache counters.
+     *
+     * @return e.g. "EvaluationCache[capacity=1048576, hits=10, misses=2, evictions=0]"
+     */
+    @Override
+    public String toString() {
+        return "EvaluationCache[capacity=" + capacity() + ", hits=" + hits() + ", misses=" + misses()
+                + ", evictions=" + evictions() + "]";
+    }
+
+}
@@ -0,0 +1,490 @@
+package me.josh.tictactoe.model.ai;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+
+import java.util.Arrays;
+
+/**
+ * Anytime alpha-beta search for boards of any shape.<br>
+ * The search deepens one ply at a time until a deadline passes, always holding the best
+ * move of the deepest finished iteration. The clock is read every {@link #CLOCK_INTERVAL}
+ * nodes; once the deadline has passed the search unwinds at once and returns the best move
+ * so far, so it overruns the deadline by at most the time to visit that many nodes.
+ * Interrupting the searching thread stops the search the same way.<br>
+ * Positions beyond the search horizon are scored by counting the winning windows each
+ * side can still complete, weighted by how many stones are already in them. Moves are
+ * ordered with the best move from earlier iterations first (kept per position in a small
+ * transposition table), then by how many stones surround each cell; on boards larger than
+ * 5x5 only cells within two steps of a stone are considered.<br>
+ * Root results are kept in an {@link EvaluationCache} with the depth they were searched to.
+ * A position cached at least as deep as a search would go (or searched to the end) is answered
+ * without searching, so games that revisit positions, or their rotations and reflections, cost
+ * nothing there; a shallower entry only orders the root moves.
+ * An instance runs one search at a time; use one instance per player.
+ */
+public final class IterativeDeepeningSearch {
+
+    /** Score of a win on the next move; wins further away score lower */
+    public static final int WIN = 1 << 29;
+
+    /** The deadline is checked once every this many nodes (a power of two) */
+    private static final int CLOCK_INTERVAL = 16;
+
+    /** Boards with more cells than this only consider cells near existing stones */
+    private static final int NEIGHBOURHOOD_MIN_CELLS = 25;
+
+    /** Distance (in rows and columns) from a stone within which cells are considered */
+    private static final int NEIGHBOURHOOD = 2;
+
+    /** Marks "no move" in the transposition table; cell indexes always fit below it */
+    private static final int NO_CELL = 0xFFFF;
+
+    /** Transposition table size (a power of two) */
+    private static final int TABLE_SIZE = 1 << 16;
+
+    /** Transposition table bound flags */
+    private static final int EXACT = 1;
+    private static final int LOWER = 2;
+    private static final int UPPER = 3;
+
+    private BoardGeometry geometry;
+
+    /** Every winning window as a single-word mask, for boards of at most 64 cells */
+    private long[] windowMasks;
+
+    /** Every winning window as its first cell and the index step between its cells, for larger boards */
+    private int[] windowStarts;
+    private int[] windowSteps;
+
+    /** Evaluation weight of a window holding n stones of one side and none of the other */
+    private int[] weights;
+
+    /** Stones of each side; side 0 moves first at the root */
+    private long[][] bits;
+
+    /** Number of stones within {@link #NEIGHBOURHOOD} steps of each cell */
+    private int[] nearCount;
+
+    /** Candidate moves and their ordering keys per ply */
+    private int[][] moves;
+    private int[][] order;
+
+    /** Zobrist hash of the current position */
+    private long hash;
+
+    /** Transposition table: key, then packed move (bits 0-15), depth (bits 16-23) and flag (bits 24-25) */
+    private final long[] tableKeys = new long[TABLE_SIZE];
+    private final int[] tableData = new int[TABLE_SIZE];
+    private final int[] tableScores = new int[TABLE_SIZE];
+
+    /** Symbol of each side, for Zobrist keys */
+    private final Symbol[] symbols = new Symbol[2];
+
+    /** Root results shared between searches, or null */
+    private final EvaluationCache cache;
+
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int completedDepth;
+
+    /**
+     * Creates a search that shares root results through the {@link EvaluationCache#shared() shared cache}.
+     */
+    public IterativeDeepeningSearch() {
+        this(EvaluationCache.shared());
+    }
+
+    /**
+     * Creates a search that shares root results through the given cache.
+     *
+     * @param cache The cache, or null to always search
+     */
+    public IterativeDeepeningSearch(EvaluationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Finds the best move for the side to move, searching until the deadline.
+     * Returns early if the game is solved before then.
+     *
+     * @param state The current game state
+     * @param deadlineNanos The {@link System#nanoTime()} value at which to stop
+     * @return The best cell index found, or -1 if the game is over
+     */
+    public int bestMove(GameState state, long deadlineNanos) {
+        return bestMove(state, deadlineNanos, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the best move for the side to move, searching until the deadline but no more
+     * than the given number of plies ahead.
+     * Returns early if the game is solved before then.
+     *
+     * @param state The current game state
+     * @param deadlineNanos The {@link System#nanoTime()} value at which to stop
+     * @param maxDepth The deepest iteration to search (at least 1)
+     * @return The best cell index found, or -1 if the game is over
+     */
+    public synchronized int bestMove(GameState state, long deadlineNanos, int maxDepth) {
+        load(state);
+        if (state.isGameOver() || state.getMoveCount() == geometry.cells) return -1;
+
+        this.deadline = deadlineNanos;
+        this.nodes = 0;
+        this.aborted = false;
+        this.completedDepth = 0;
+
+        int rootMoves = state.getMoveCount();
+        int remaining = geometry.cells - rootMoves;
+        maxDepth = Math.min(maxDepth, remaining);
+
+        int cached = (cache != null) ? cache.getMove(state) : EvaluationCache.MISSING;
+        if (cached != EvaluationCache.MISSING && state.getSymbolAt(EvaluationCache.move(cached)) != Symbol.EMPTY) {
+            // Only a 64-bit key collision can give an occupied cell
+            cached = EvaluationCache.MISSING;
+        }
+        if (cached != EvaluationCache.MISSING && EvaluationCache.depth(cached) >= maxDepth) {
+            completedDepth = EvaluationCache.depth(cached);
+            return EvaluationCache.move(cached);
+        }
+
+        Arrays.fill(tableKeys, 0);
+        int count = generate(0, (cached != EvaluationCache.MISSING) ? EvaluationCache.move(cached) : NO_CELL);
+        int[] candidates = moves[0];
+        int[] scores = order[0];
+        int best = candidates[0];
+        boolean solved = false;
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int alpha = -WIN - 1;
+            int iterationBest = -1;
+
+            for (int i = 0; i < count; i++) {
+                int cell = candidates[i];
+                int score = searchMove(cell, 0, depth, alpha, WIN + 1, 0, rootMoves);
+                if (aborted) break;
+
+                scores[i] = score;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = cell;
+                }
+            }
+
+            // A partial iteration still improves on the previous best, which was searched first
+            if (iterationBest >= 0) best = iterationBest;
+            if (aborted) break;
+
+            completedDepth = depth;
+            if (alpha >= WIN - geometry.cells || alpha <= -WIN + geometry.cells) {
+                solved = true;
+                break;
+            }
+
+            // Search the best moves of this iteration first next time
+            sortDescending(candidates, scores, count);
+        }
+
+        // A proven result holds at any depth, so it is stored as searched to the end
+        int depth = solved ? remaining : completedDepth;
+        if (cache != null && depth > 0 && (cached == EvaluationCache.MISSING || depth > EvaluationCache.depth(cached))) {
+            cache.putMove(state, best, depth);
+        }
+        return best;
+    }
+
+    /**
+     * Gets the deepest iteration the last search finished, or the depth of the cached result it returned.
+     *
+     * @return The completed depth in plies
+     */
+    public synchronized int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Gets the number of nodes the last search visited.
+     *
+     * @return The node count
+     */
+    public synchronized long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Negamax with alpha-beta pruning.
+     *
+     * @return The score for the side to move
+     */
+    private int search(int side, int depth, int alpha, int beta, int ply, int stones) {
+        if ((++nodes & (CLOCK_INTERVAL - 1)) == 0
+                && (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted())) {
+            aborted = true;
+        }
+        if (aborted) return 0;
+        if (stones == geometry.cells) return 0;
+        if (depth == 0) return evaluate(side);
+
+        int slot = (int) hash & (TABLE_SIZE - 1);
+        int tableMove = NO_CELL;
+        if (tableKeys[slot] == hash) {
+            int data = tableData[slot];
+            tableMove = data & 0xFFFF;
+            if (((data >>> 16) & 0xFF) >= depth) {
+                int score = tableScores[slot];
+                int flag = data >>> 24;
+                if (flag == EXACT) return score;
+                if (flag == LOWER && score >= beta) return score;
+                if (flag == UPPER && score <= alpha) return score;
+            }
+        }
+
+        int originalAlpha = alpha;
+        int count = generate(ply, tableMove);
+        int[] candidates = moves[ply];
+        int best = -WIN - 1;
+        int bestMove = candidates[0];
+
+        for (int i = 0; i < count; i++) {
+            int cell = candidates[i];
+            int score = searchMove(cell, side, depth, alpha, beta, ply, stones);
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = cell;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+
+        int flag = (best <= originalAlpha) ? UPPER : (best >= beta) ? LOWER : EXACT;
+        tableKeys[slot] = hash;
+        tableData[slot] = bestMove | (Math.min(depth, 0xFF) << 16) | (flag << 24);
+        tableScores[slot] = best;
+        return best;
+    }
+
+    /**
+     * Plays a move, searches the reply and takes the move back.
+     *
+     * @return The score of the move for the side making it
+     */
+    private int searchMove(int cell, int side, int depth, int alpha, int beta, int ply, int stones) {
+        place(side, cell);
+        int score = geometry.isWinningCell(bits[side], cell)
+                ? WIN - ply
+                : -search(side ^ 1, depth - 1, -beta, -alpha, ply + 1, stones + 1);
+        remove(side, cell);
+        return score;
+    }
+
+    /**
+     * Scores a position for the side to move by the windows each side can still complete.
+     */
+    private int evaluate(int side) {
+        long[] mine = bits[side];
+        long[] theirs = bits[side ^ 1];
+        int score = 0;
+
+        if (windowMasks != null) {
+            long own = mine[0];
+            long other = theirs[0];
+            for (long mask : windowMasks) {
+                score += weigh(Long.bitCount(own & mask), Long.bitCount(other & mask));
+            }
+            return score;
+        }
+
+        int k = geometry.winLength;
+        for (int w = 0; w < windowStarts.length; w++) {
+            int own = 0;
+            int other = 0;
+            for (int i = 0, cell = windowStarts[w]; i < k; i++, cell += windowSteps[w]) {
+                if (BoardGeometry.get(mine, cell)) {
+                    own++;
+                } else if (BoardGeometry.get(theirs, cell)) {
+                    other++;
+                }
+            }
+            score += weigh(own, other);
+        }
+        return score;
+    }
+
+    /**
+     * Scores one window: only a window free of the other side's stones is worth anything.
+     */
+    private int weigh(int own, int other) {
+        if (other == 0) return weights[own];
+        if (own == 0) return -weights[other];
+        return 0;
+    }
+
+    /**
+     * Fills moves[ply] with the candidate cells, best first.
+     *
+     * @param first A cell to put first, or {@link #NO_CELL}
+     * @return The number of candidates
+     */
+    private int generate(int ply, int first) {
+        if (moves[ply] == null) {
+            moves[ply] = new int[geometry.cells];
+            order[ply] = new int[geometry.cells];
+        }
+        int[] candidates = moves[ply];
+        int[] keys = order[ply];
+        boolean local = geometry.cells > NEIGHBOURHOOD_MIN_CELLS;
+        int count = 0;
+
+        for (int word = 0; word < geometry.words; word++) {
+            long empty = ~(bits[0][word] | bits[1][word]) & geometry.wordMask(word);
+            while (empty != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+                if (local && nearCount[cell] == 0) continue;
+
+                candidates[count] = cell;
+                keys[count] = (cell == first) ? Integer.MAX_VALUE : nearCount[cell];
+                count++;
+            }
+        }
+
+        // An empty large board: start in the center
+        if (count == 0) {
+            candidates[0] = geometry.index(geometry.rows / 2, geometry.cols / 2);
+            keys[0] = 0;
+            return 1;
+        }
+
+        sortDescending(candidates, keys, count);
+        return count;
+    }
+
+    /**
+     * Sorts cells by key, highest first (insertion sort: lists are short and mostly ordered).
+     */
+    private static void sortDescending(int[] cells, int[] keys, int count) {
+        for (int i = 1; i < count; i++) {
+            int cell = cells[i];
+            int key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] < key) {
+                cells[j + 1] = cells[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            cells[j + 1] = cell;
+            keys[j + 1] = key;
+        }
+    }
+
+    private void place(int side, int cell) {
+        BoardGeometry.set(bits[side], cell);
+        hash ^= geometry.zobristKey(0, symbols[side], cell);
+        adjustNear(cell, 1);
+    }
+
+    private void remove(int side, int cell) {
+        BoardGeometry.clear(bits[side], cell);
+        hash ^= geometry.zobristKey(0, symbols[side], cell);
+        adjustNear(cell, -1);
+    }
+
+    /**
+     * Adds to the near-stone count of every cell around a cell.
+     */
+    private void adjustNear(int cell, int delta) {
+        int row = geometry.row(cell);
+        int col = geometry.col(cell);
+        int bottom = Math.min(geometry.rows - 1, row + NEIGHBOURHOOD);
+        int right = Math.min(geometry.cols - 1, col + NEIGHBOURHOOD);
+        for (int r = Math.max(0, row - NEIGHBOURHOOD); r <= bottom; r++) {
+            for (int c = Math.max(0, col - NEIGHBOURHOOD); c <= right; c++) {
+                nearCount[geometry.index(r, c)] += delta;
+            }
+        }
+    }
+
+    /**
+     * Copies the position, rebuilding the per-shape data if the board shape changed.
+     */
+    private void load(GameState state) {
+        BoardGeometry shape = state.getGeometry();
+        if (shape != geometry) {
+            geometry = shape;
+            buildWindows();
+            bits = new long[][]{shape.newBits(), shape.newBits()};
+            nearCount = new int[shape.cells];
+            moves = new int[shape.cells + 1][];
+            order = new int[shape.cells + 1][];
+        }
+
+        symbols[0] = state.getCurrentSymbol();
+        symbols[1] = symbols[0].opposite();
+        Arrays.fill(nearCount, 0);
+        hash = 0;
+        for (int word = 0; word < geometry.words; word++) {
+            bits[0][word] = 0;
+            bits[1][word] = 0;
+        }
+        for (int side = 0; side < 2; side++) {
+            for (int word = 0; word < geometry.words; word++) {
+                long stones = state.getBits(symbols[side], word);
+                while (stones != 0) {
+                    place(side, (word << 6) + Long.numberOfTrailingZeros(stones));
+                    stones &= stones - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the windows and weights for the current shape.
+     */
+    private void buildWindows() {
+        int k = geometry.winLength;
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+        int[] starts = new int[4 * geometry.cells];
+        int[] steps = new int[4 * geometry.cells];
+        int count = 0;
+        for (int[] dir : directions) {
+            for (int row = 0; row < geometry.rows; row++) {
+                for (int col = 0; col < geometry.cols; col++) {
+                    if (!geometry.contains(row + (k - 1) * dir[0], col + (k - 1) * dir[1])) continue;
+                    starts[count] = geometry.index(row, col);
+                    steps[count] = dir[0] * geometry.cols + dir[1];
+                    count++;
+                }
+            }
+            // With one in a row every direction gives the same windows
+            if (k == 1) break;
+        }
+
+        if (geometry.cells <= 64) {
+            windowMasks = new long[count];
+            for (int w = 0; w < count; w++) {
+                for (int i = 0; i < k; i++) {
+                    windowMasks[w] |= 1L << (starts[w] + i * steps[w]);
+                }
+            }
+            windowStarts = null;
+            windowSteps = null;
+        } else {
+            windowMasks = null;
+            windowStarts = Arrays.copyOf(starts, count);
+            windowSteps = Arrays.copyOf(steps, count);
+        }
+
+        // Capped so the sum over every window stays far below a win
+        weights = new int[k + 1];
+        for (int n = 1; n <= k; n++) {
+            weights[n] = 1 << Math.min(3 * (n - 1), 15);
+        }
+    }
+
+}
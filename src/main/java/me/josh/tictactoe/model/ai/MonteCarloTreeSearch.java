@@ -0,0 +1,455 @@
+package me.josh.tictactoe.model.ai;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Monte Carlo tree search for boards of any shape.<br>
+ * Each iteration walks down the tree choosing children by UCT (upper confidence bounds
+ * applied to trees), expands the leaf it reaches, finishes the game with uniformly random
+ * moves and credits the result back along the path. Nodes live in parallel primitive
+ * arrays and rollouts play on reused bitboards, so after warm-up an iteration allocates nothing.<br>
+ * Searches use root parallelization: every thread grows its own tree from the same position
+ * with its own random numbers, and the visit counts of the root moves are summed at the end.
+ * Threads never share nodes, so adding cores adds iterations without adding contention.<br>
+ * On boards larger than 5x5, nodes only expand cells within two steps of an existing stone,
+ * which keeps the branching factor manageable without losing any sensible move.<br>
+ * Interrupting the calling thread stops every thread of the search at its next clock check,
+ * and the best move so far is returned.
+ * An instance runs one search at a time; use one instance per player.
+ */
+public final class MonteCarloTreeSearch {
+
+    /** Exploration constant of the UCT formula */
+    public static final double EXPLORATION = Math.sqrt(2);
+
+    /** Upper bound on tree nodes per thread, to keep memory bounded on long searches */
+    public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+    /** Boards with more cells than this only expand cells near existing stones */
+    private static final int NEIGHBOURHOOD_MIN_CELLS = 25;
+
+    /** Distance (in rows and columns) from a stone within which cells are expanded */
+    private static final int NEIGHBOURHOOD = 2;
+
+    /** The deadline is checked once every this many iterations */
+    private static final int CLOCK_INTERVAL = 16;
+
+    /** Number of threads that each grow a tree */
+    private final int threads;
+
+    /** Node limit of each tree */
+    private final int maxNodes;
+
+    /** Per-thread state, reused between searches */
+    private final Worker[] workers;
+
+    /** Set once the calling thread is interrupted, so the other threads stop too */
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    /**
+     * Creates a search that uses the given number of threads.
+     *
+     * @param threads The number of trees grown in parallel (1 searches on the calling thread only)
+     * @param maxNodes The node limit of each tree; once reached, leaves are no longer expanded
+     */
+    public MonteCarloTreeSearch(int threads, int maxNodes) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one thread");
+        this.threads = threads;
+        this.maxNodes = Math.max(2, maxNodes);
+        this.workers = new Worker[threads];
+    }
+
+    /**
+     * Finds the best move for the side to move.
+     * Immediate wins, and blocks of the opponent's immediate wins, are played without searching.
+     *
+     * @param state The current game state
+     * @param iterations The number of iterations each thread runs (0 for no limit)
+     * @param timeBudgetNanos The time allowed for the search (0 for no limit)
+     * @return The cell index of the move whose subtree was visited most, or -1 if the game is over
+     * @throws IllegalArgumentException if neither budget is set
+     */
+    public synchronized int bestMove(GameState state, int iterations, long timeBudgetNanos) {
+        if (iterations <= 0 && timeBudgetNanos <= 0) {
+            throw new IllegalArgumentException("Either an iteration or a time budget is required");
+        }
+        BoardGeometry geometry = state.getGeometry();
+        if (state.isGameOver() || state.getMoveCount() == geometry.cells) return -1;
+
+        for (int i = 0; i < threads; i++) {
+            if (workers[i] == null || workers[i].geometry != geometry) {
+                workers[i] = new Worker(geometry, maxNodes, new SplittableRandom());
+            }
+            workers[i].load(state);
+        }
+
+        Worker first = workers[0];
+        int forced = first.decisiveMove();
+        if (forced >= 0) return forced;
+
+        long deadline = (timeBudgetNanos > 0) ? System.nanoTime() + timeBudgetNanos : Long.MAX_VALUE;
+        int limit = (iterations > 0) ? iterations : Integer.MAX_VALUE;
+
+        stop.set(false);
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[threads];
+        for (int i = 1; i < threads; i++) {
+            Worker worker = workers[i];
+            tasks[i] = ForkJoinPool.commonPool().submit(() -> worker.search(limit, deadline, stop));
+        }
+        first.search(limit, deadline, stop);
+        for (int i = 1; i < threads; i++) {
+            tasks[i].join();
+        }
+
+        // Sum the root statistics of every tree
+        int[] visits = new int[geometry.cells];
+        float[] wins = new float[geometry.cells];
+        for (Worker worker : workers) {
+            worker.addRootStatistics(visits, wins);
+        }
+
+        int best = -1;
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            if (visits[cell] == 0) continue;
+            if (best < 0 || visits[cell] > visits[best]
+                    || (visits[cell] == visits[best] && wins[cell] > wins[best])) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * One thread's tree and scratch state.
+     * Side 0 is the player to move at the root, side 1 the opponent.
+     */
+    private static final class Worker {
+
+        final BoardGeometry geometry;
+        final int maxNodes;
+        final SplittableRandom random;
+
+        /** Stones of each side at the root */
+        final long[][] rootBits;
+
+        /** Stones of each side during an iteration */
+        final long[][] bits;
+
+        /** Free cells during a rollout (unordered) */
+        final int[] free;
+
+        /** Nodes visited by the current iteration, root first */
+        final int[] path;
+
+        /** Scratch mask of cells near stones */
+        final long[] near;
+
+        int rootMoves;
+
+        // Tree nodes as parallel arrays; node 0 is the root
+        int[] move;
+        int[] firstChild;
+        int[] childCount;
+        int[] visits;
+        float[] wins;
+        int size;
+
+        Worker(BoardGeometry geometry, int maxNodes, SplittableRandom random) {
+            this.geometry = geometry;
+            // The root must always be able to expand
+            this.maxNodes = Math.max(maxNodes, geometry.cells + 1);
+            this.random = random;
+            this.rootBits = new long[][]{geometry.newBits(), geometry.newBits()};
+            this.bits = new long[][]{geometry.newBits(), geometry.newBits()};
+            this.free = new int[geometry.cells];
+            this.path = new int[geometry.cells + 2];
+            this.near = geometry.newBits();
+            allocate(Math.min(this.maxNodes, Math.max(4096, geometry.cells + 1)));
+        }
+
+        /**
+         * Copies the position and clears the tree.
+         */
+        void load(GameState state) {
+            Symbol me = state.getCurrentSymbol();
+            for (int word = 0; word < geometry.words; word++) {
+                rootBits[0][word] = state.getBits(me, word);
+                rootBits[1][word] = state.getBits(me.opposite(), word);
+            }
+            rootMoves = state.getMoveCount();
+
+            size = 1;
+            move[0] = -1;
+            childCount[0] = 0;
+            visits[0] = 0;
+            wins[0] = 0;
+        }
+
+        /**
+         * Finds a move that wins at once, or failing that one that stops the opponent winning at once.
+         *
+         * @return The cell index, or -1 if there is none
+         */
+        int decisiveMove() {
+            int block = -1;
+            for (int word = 0; word < geometry.words; word++) {
+                long empty = ~(rootBits[0][word] | rootBits[1][word]) & geometry.wordMask(word);
+                while (empty != 0) {
+                    int cell = (word << 6) + Long.numberOfTrailingZeros(empty);
+                    empty &= empty - 1;
+
+                    if (wouldWin(rootBits[0], cell)) return cell;
+                    if (block < 0 && wouldWin(rootBits[1], cell)) block = cell;
+                }
+            }
+            return block;
+        }
+
+        /**
+         * Checks whether a stone placed on an empty cell would win.
+         */
+        private boolean wouldWin(long[] side, int cell) {
+            BoardGeometry.set(side, cell);
+            boolean win = geometry.isWinningCell(side, cell);
+            BoardGeometry.clear(side, cell);
+            return win;
+        }
+
+        /**
+         * Runs iterations until either budget runs out or the search is stopped.
+         */
+        void search(int iterations, long deadline, AtomicBoolean stop) {
+            for (int i = 0; i < iterations; i++) {
+                if (i % CLOCK_INTERVAL == 0) {
+                    if (System.nanoTime() >= deadline || stop.get()) return;
+                    if (Thread.currentThread().isInterrupted()) {
+                        stop.set(true);
+                        return;
+                    }
+                }
+                iterate();
+            }
+        }
+
+        /**
+         * Runs one select, expand, rollout and backpropagate cycle.
+         */
+        private void iterate() {
+            for (int word = 0; word < geometry.words; word++) {
+                bits[0][word] = rootBits[0][word];
+                bits[1][word] = rootBits[1][word];
+            }
+
+            int node = 0;
+            int depth = 0;
+            int side = 0;
+            int moves = rootMoves;
+            int winner = -2;
+            path[depth++] = 0;
+
+            // Selection and expansion; winner is -2 while the game is still going
+            while (true) {
+                if (childCount[node] == 0) {
+                    if (visits[node] == 0 && node != 0) break;
+                    if (!expand(node)) break;
+                }
+
+                node = select(node);
+                path[depth++] = node;
+                int cell = move[node];
+                BoardGeometry.set(bits[side], cell);
+                moves++;
+
+                if (geometry.isWinningCell(bits[side], cell)) {
+                    winner = side;
+                    break;
+                }
+                if (moves == geometry.cells) {
+                    winner = -1;
+                    break;
+                }
+                side ^= 1;
+            }
+
+            if (winner == -2) {
+                // The leaf's mover was the previous side, so the next move belongs to side
+                winner = rollout(side);
+            }
+
+            // Node d on the path was entered by a move of side (d - 1) & 1
+            visits[0]++;
+            for (int d = 1; d < depth; d++) {
+                int n = path[d];
+                visits[n]++;
+                if (winner == -1) {
+                    wins[n] += 0.5f;
+                } else if (winner == ((d - 1) & 1)) {
+                    wins[n] += 1f;
+                }
+            }
+        }
+
+        /**
+         * Picks the child with the highest UCT value; unvisited children come first.
+         */
+        private int select(int node) {
+            int first = firstChild[node];
+            int end = first + childCount[node];
+            double logParent = Math.log(visits[node]);
+
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; child++) {
+                int n = visits[child];
+                if (n == 0) return child;
+
+                double value = wins[child] / n + EXPLORATION * Math.sqrt(logParent / n);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds a child for every candidate move of the current position.
+         *
+         * @return false if the tree is full or there are no candidates
+         */
+        private boolean expand(int node) {
+            int count = candidates();
+            if (count == 0) return false;
+            if (size + count > move.length) {
+                if (size + count > maxNodes) return false;
+                allocate(Math.min(maxNodes, Math.max(size + count, move.length * 2)));
+            }
+
+            firstChild[node] = size;
+            childCount[node] = count;
+            for (int i = 0; i < count; i++) {
+                int child = size + i;
+                move[child] = free[i];
+                childCount[child] = 0;
+                visits[child] = 0;
+                wins[child] = 0;
+            }
+            size += count;
+            return true;
+        }
+
+        /**
+         * Fills the start of {@link #free} with the cells worth expanding.
+         *
+         * @return The number of candidate cells
+         */
+        private int candidates() {
+            boolean local = geometry.cells > NEIGHBOURHOOD_MIN_CELLS;
+            if (local) {
+                Arrays.fill(near, 0);
+                boolean any = false;
+                for (int word = 0; word < geometry.words; word++) {
+                    long stones = bits[0][word] | bits[1][word];
+                    while (stones != 0) {
+                        markNear((word << 6) + Long.numberOfTrailingZeros(stones));
+                        stones &= stones - 1;
+                        any = true;
+                    }
+                }
+                if (!any) {
+                    free[0] = geometry.index(geometry.rows / 2, geometry.cols / 2);
+                    return 1;
+                }
+            }
+
+            int count = 0;
+            for (int word = 0; word < geometry.words; word++) {
+                long empty = ~(bits[0][word] | bits[1][word]) & geometry.wordMask(word);
+                if (local) empty &= near[word];
+                while (empty != 0) {
+                    free[count++] = (word << 6) + Long.numberOfTrailingZeros(empty);
+                    empty &= empty - 1;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Marks the cells within {@link #NEIGHBOURHOOD} steps of a stone.
+         */
+        private void markNear(int cell) {
+            int row = geometry.row(cell);
+            int col = geometry.col(cell);
+            int top = Math.max(0, row - NEIGHBOURHOOD);
+            int bottom = Math.min(geometry.rows - 1, row + NEIGHBOURHOOD);
+            int left = Math.max(0, col - NEIGHBOURHOOD);
+            int right = Math.min(geometry.cols - 1, col + NEIGHBOURHOOD);
+            for (int r = top; r <= bottom; r++) {
+                for (int c = left; c <= right; c++) {
+                    BoardGeometry.set(near, geometry.index(r, c));
+                }
+            }
+        }
+
+        /**
+         * Finishes the game with uniformly random moves on the scratch bitboards.
+         *
+         * @param side The side to move
+         * @param moves The number of stones on the board
+         * @return The winning side, or -1 for a draw
+         */
+        private int rollout(int side) {
+            int count = 0;
+            for (int word = 0; word < geometry.words; word++) {
+                long empty = ~(bits[0][word] | bits[1][word]) & geometry.wordMask(word);
+                while (empty != 0) {
+                    free[count++] = (word << 6) + Long.numberOfTrailingZeros(empty);
+                    empty &= empty - 1;
+                }
+            }
+
+            while (count > 0) {
+                int pick = random.nextInt(count);
+                int cell = free[pick];
+                free[pick] = free[--count];
+
+                BoardGeometry.set(bits[side], cell);
+                if (geometry.isWinningCell(bits[side], cell)) return side;
+                side ^= 1;
+            }
+            return -1;
+        }
+
+        /**
+         * Adds the visits and wins of each root move, indexed by cell.
+         */
+        void addRootStatistics(int[] cellVisits, float[] cellWins) {
+            int first = firstChild[0];
+            for (int child = first; child < first + childCount[0]; child++) {
+                cellVisits[move[child]] += visits[child];
+                cellWins[move[child]] += wins[child];
+            }
+        }
+
+        /**
+         * Grows the node arrays, keeping existing nodes.
+         */
+        private void allocate(int capacity) {
+            move = (move == null) ? new int[capacity] : Arrays.copyOf(move, capacity);
+            firstChild = (firstChild == null) ? new int[capacity] : Arrays.copyOf(firstChild, capacity);
+            childCount = (childCount == null) ? new int[capacity] : Arrays.copyOf(childCount, capacity);
+            visits = (visits == null) ? new int[capacity] : Arrays.copyOf(visits, capacity);
+            wins = (wins == null) ? new float[capacity] : Arrays.copyOf(wins, capacity);
+        }
+
+    }
+
+}
@@ -0,0 +1,173 @@
+package me.josh.tictactoe.model.ai;
+
+import me.josh.tictactoe.model.Bitboard;
+
+/**
+ * Perfect-play search for the 3x3 board.
+ * Uses negamax with alpha-beta pruning, a fixed move ordering (center, corners, sides)
+ * and a transposition table shared by all callers.<br>
+ * Positions are always seen from the side to move: {@code me} holds the stones of the
+ * player about to move and {@code opp} holds the opponent's stones.
+ */
+public final class Negamax {
+
+    /** Score of a win with no empty cells left; faster wins score higher */
+    public static final int WIN = 10;
+
+    /** Cells tried in this order: center, corners, then sides */
+    private static final int[] MOVE_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+
+    /** Transposition table entry flags */
+    private static final int EXACT = 1;
+    private static final int LOWER = 2;
+    private static final int UPPER = 3;
+
+    /**
+     * Transposition table indexed by {@code me | opp << 9}, which is a perfect hash of the
+     * position, so entries never collide. Each entry packs the bound flag (bits 0-1),
+     * the best move (bits 2-5) and the score offset by {@link #WIN} (bits 6-10).
+     * Entries are single ints, so concurrent readers and writers only ever see whole entries.
+     */
+    private static final int[] TABLE = new int[1 << (2 * Bitboard.CELLS)];
+
+    private Negamax() {
+    }
+
+    /**
+     * Finds the best move for the side to move.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @return The best cell index (0-8), or -1 if the game is already decided or the board is full
+     */
+    public static int bestMove(int me, int opp) {
+        if (Bitboard.hasWin(me) || Bitboard.hasWin(opp) || Bitboard.isFull(me, opp)) {
+            return -1;
+        }
+        return searchRoot(me, opp);
+    }
+
+    /**
+     * Gets the game-theoretic score of a position for the side to move.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @return A positive score for a forced win, 0 for a draw, negative for a forced loss
+     */
+    public static int score(int me, int opp) {
+        if (Bitboard.hasWin(opp)) {
+            return -(Bitboard.CELLS + 1 - Integer.bitCount(me | opp));
+        }
+        if (Bitboard.isFull(me, opp)) {
+            return 0;
+        }
+        return search(me, opp, -WIN - 1, WIN + 1);
+    }
+
+    /**
+     * Searches every move of the root position with the full window and returns the best one.
+     * The move is tracked here rather than read back from the table, since another thread may
+     * overwrite the root's entry with a bound from a narrower search of the same position.
+     * Assumes the game is not decided and the board is not full.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @return The best cell index (0-8)
+     */
+    private static int searchRoot(int me, int opp) {
+        int occupied = me | opp;
+        int empties = Bitboard.CELLS - Integer.bitCount(occupied);
+        int alpha = -WIN - 1;
+        int bestMove = -1;
+
+        for (int cell : MOVE_ORDER) {
+            if ((occupied & (1 << cell)) != 0) continue;
+
+            int next = me | (1 << cell);
+            int value;
+            if (Bitboard.isWinningCell(next, cell)) {
+                value = empties;
+            } else if (empties == 1) {
+                value = 0;
+            } else {
+                value = -search(opp, next, -WIN - 1, -alpha);
+            }
+
+            if (value > alpha) {
+                alpha = value;
+                bestMove = cell;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Negamax search with alpha-beta pruning.
+     * Assumes the opponent has not just won and the board is not full.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @param alpha The lower bound of the search window
+     * @param beta The upper bound of the search window
+     * @return The score of the position for the side to move
+     */
+    private static int search(int me, int opp, int alpha, int beta) {
+        int key = key(me, opp);
+        int entry = TABLE[key];
+        int ttMove = -1;
+
+        if (entry != 0) {
+            int flag = entry & 0x3;
+            int value = (entry >>> 6) - WIN;
+            ttMove = (entry >>> 2) & 0xF;
+
+            if (flag == EXACT) return value;
+            if (flag == LOWER && value >= beta) return value;
+            if (flag == UPPER && value <= alpha) return value;
+        }
+
+        int originalAlpha = alpha;
+        int occupied = me | opp;
+        int empties = Bitboard.CELLS - Integer.bitCount(occupied);
+        int best = -WIN - 1;
+        int bestMove = -1;
+
+        // Try the remembered best move first, then the static ordering
+        for (int i = -1; i < MOVE_ORDER.length; i++) {
+            int cell = (i < 0) ? ttMove : MOVE_ORDER[i];
+            if (cell < 0 || (i >= 0 && cell == ttMove) || (occupied & (1 << cell)) != 0) {
+                continue;
+            }
+
+            int next = me | (1 << cell);
+            int value;
+            if (Bitboard.isWinningCell(next, cell)) {
+                // Winning now is worth more the more empty cells remain
+                value = empties;
+            } else if (empties == 1) {
+                value = 0;
+            } else {
+                value = -search(opp, next, -beta, -alpha);
+            }
+
+            if (value > best) {
+                best = value;
+                bestMove = cell;
+            }
+            if (value > alpha) alpha = value;
+            if (alpha >= beta) break;
+        }
+
+        int flag = (best <= originalAlpha) ? UPPER : (best >= beta) ? LOWER : EXACT;
+        TABLE[key] = ((best + WIN) << 6) | (bestMove << 2) | flag;
+        return best;
+    }
+
+    /**
+     * Computes the transposition table index for a position.
+     */
+    private static int key(int me, int opp) {
+        return me | (opp << Bitboard.CELLS);
+    }
+
+}
@@ -0,0 +1,235 @@
+package me.josh.tictactoe.model.ai;
+
+import me.josh.tictactoe.model.Bitboard;
+import me.josh.tictactoe.model.BoardGeometry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lookup table of perfect play for every reachable 3x3 position.<br>
+ * Positions are seen from the side to move ({@code me} is the player about to move,
+ * {@code opp} the opponent) and indexed by their base-3 encoding, so a lookup is two
+ * array reads and an add. Each entry packs the game-theoretic value and the set of
+ * optimal moves into a short.<br>
+ * The table is generated on first use. Only one position per symmetry class
+ * (rotations and reflections of the board) is actually solved; the results are
+ * mapped onto the other members of the class.
+ */
+public final class PerfectPlayTable {
+
+    /** Value of a position the side to move will lose with perfect play */
+    public static final int LOSS = -1;
+
+    /** Value of a position that is a draw with perfect play */
+    public static final int DRAW = 0;
+
+    /** Value of a position the side to move will win with perfect play */
+    public static final int WIN = 1;
+
+    /** Entry layout: bits 0-8 optimal moves, bits 9-10 value + 1, bit 11 set once solved */
+    private static final int MOVES_MASK = Bitboard.FULL_MASK;
+    private static final int VALUE_SHIFT = 9;
+    private static final int SOLVED = 1 << 11;
+
+    /** Base-3 weight of each cell when it holds a stone of the side to move (digit 1) */
+    private static final int[] TERNARY_ME = new int[1 << Bitboard.CELLS];
+
+    /** Base-3 weight of each cell when it holds an opponent stone (digit 2) */
+    private static final int[] TERNARY_OPP = new int[1 << Bitboard.CELLS];
+
+    /** The board whose 8 symmetries (rotations and reflections) are used */
+    private static final BoardGeometry BOARD = BoardGeometry.STANDARD;
+
+    /** TRANSFORM[t][mask] is the mask with every cell moved by symmetry t */
+    private static final int[][] TRANSFORM = new int[BOARD.symmetryCount()][1 << Bitboard.CELLS];
+
+    static {
+        int[] powers = new int[Bitboard.CELLS];
+        powers[0] = 1;
+        for (int cell = 1; cell < Bitboard.CELLS; cell++) {
+            powers[cell] = powers[cell - 1] * 3;
+        }
+
+        // Each mask extends the mask without its lowest bit by one cell
+        for (int mask = 1; mask <= Bitboard.FULL_MASK; mask++) {
+            int rest = mask & (mask - 1);
+            int cell = Integer.numberOfTrailingZeros(mask);
+
+            TERNARY_ME[mask] = TERNARY_ME[rest] + powers[cell];
+            TERNARY_OPP[mask] = TERNARY_OPP[rest] + 2 * powers[cell];
+            for (int t = 0; t < TRANSFORM.length; t++) {
+                TRANSFORM[t][mask] = TRANSFORM[t][rest] | (1 << BOARD.transform(t, cell));
+            }
+        }
+    }
+
+    /**
+     * Holder for the table itself, so it is only generated when first used.
+     */
+    private static final class Holder {
+        static final short[] TABLE = generate();
+    }
+
+    private PerfectPlayTable() {
+    }
+
+    /**
+     * Gets the game-theoretic value of a position for the side to move.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS}
+     * @throws IllegalArgumentException if the position cannot arise in a game
+     */
+    public static int value(int me, int opp) {
+        return ((entry(me, opp) >>> VALUE_SHIFT) & 0x3) - 1;
+    }
+
+    /**
+     * Gets every move that preserves the game-theoretic value of a position.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @return A mask of optimal cells, or 0 if the game is already over
+     * @throws IllegalArgumentException if the position cannot arise in a game
+     */
+    public static int bestMoves(int me, int opp) {
+        return entry(me, opp) & MOVES_MASK;
+    }
+
+    /**
+     * Picks one of the optimal moves at random.
+     *
+     * @param me The stones of the player to move
+     * @param opp The stones of the opponent
+     * @return An optimal cell index (0-8), or -1 if the game is already over
+     * @throws IllegalArgumentException if the position cannot arise in a game
+     */
+    public static int bestMove(int me, int opp) {
+        int moves = bestMoves(me, opp);
+        if (moves == 0) return -1;
+
+        // Skip a random number of set bits
+        int skip = ThreadLocalRandom.current().nextInt(Integer.bitCount(moves));
+        for (int i = 0; i < skip; i++) {
+            moves &= moves - 1;
+        }
+        return Integer.numberOfTrailingZeros(moves);
+    }
+
+    /**
+     * Like {@link #bestMoves}, but returns 0 for invalid or unreachable positions instead of
+     * throwing, so batch callers need no per-position exception handling.
+     */
+    static int bestMovesOrNone(int me, int opp) {
+        if ((me & ~Bitboard.FULL_MASK) != 0 || (opp & ~Bitboard.FULL_MASK) != 0 || (me & opp) != 0) {
+            return 0;
+        }
+        return Holder.TABLE[TERNARY_ME[me] + TERNARY_OPP[opp]] & MOVES_MASK;
+    }
+
+    /**
+     * Looks up the packed entry for a position.
+     */
+    private static int entry(int me, int opp) {
+        if ((me & ~Bitboard.FULL_MASK) != 0 || (opp & ~Bitboard.FULL_MASK) != 0 || (me & opp) != 0) {
+            throw new IllegalArgumentException("Not a valid 3x3 position");
+        }
+
+        int entry = Holder.TABLE[TERNARY_ME[me] + TERNARY_OPP[opp]];
+        if (entry == 0) {
+            throw new IllegalArgumentException("Position is not reachable in a game");
+        }
+        return entry;
+    }
+
+    /**
+     * Builds the table by solving every position reachable from the empty board.
+     */
+    private static short[] generate() {
+        short[] table = new short[TERNARY_OPP[Bitboard.FULL_MASK] + 1];
+        solve(table, 0, 0);
+        return table;
+    }
+
+    /**
+     * Solves a position, filling in its entry and the entries of every position reachable from it.
+     *
+     * @return The packed entry for the position
+     */
+    private static int solve(short[] table, int me, int opp) {
+        int index = TERNARY_ME[me] + TERNARY_OPP[opp];
+        if (table[index] != 0) return table[index];
+
+        // Solve the canonical member of the symmetry class, then map its moves back
+        int symmetry = 0;
+        int canonical = index;
+        for (int t = 1; t < TRANSFORM.length; t++) {
+            int candidate = TERNARY_ME[TRANSFORM[t][me]] + TERNARY_OPP[TRANSFORM[t][opp]];
+            if (candidate < canonical) {
+                canonical = candidate;
+                symmetry = t;
+            }
+        }
+
+        if (symmetry == 0) {
+            int entry = solveCanonical(table, me, opp);
+            table[index] = (short) entry;
+            return entry;
+        }
+
+        int solved = solve(table, TRANSFORM[symmetry][me], TRANSFORM[symmetry][opp]);
+        int moves = TRANSFORM[BOARD.inverse(symmetry)][solved & MOVES_MASK];
+        int entry = (solved & ~MOVES_MASK) | moves;
+        table[index] = (short) entry;
+
+        // The children still need entries of their own so every lookup stays a direct index
+        if (!Bitboard.hasWin(opp)) {
+            int free = ~(me | opp) & Bitboard.FULL_MASK;
+            while (free != 0) {
+                int cell = Integer.numberOfTrailingZeros(free);
+                free &= free - 1;
+                solve(table, opp, me | (1 << cell));
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Solves a position by trying every move.
+     *
+     * @return The packed entry for the position
+     */
+    private static int solveCanonical(short[] table, int me, int opp) {
+        // The opponent's last move may have ended the game
+        if (Bitboard.hasWin(opp)) {
+            return SOLVED | ((LOSS + 1) << VALUE_SHIFT);
+        }
+        if (Bitboard.isFull(me, opp)) {
+            return SOLVED | ((DRAW + 1) << VALUE_SHIFT);
+        }
+
+        int best = LOSS - 1;
+        int moves = 0;
+        int free = ~(me | opp) & Bitboard.FULL_MASK;
+
+        while (free != 0) {
+            int cell = Integer.numberOfTrailingZeros(free);
+            free &= free - 1;
+
+            int next = me | (1 << cell);
+            int childValue = ((solve(table, opp, next) >>> VALUE_SHIFT) & 0x3) - 1;
+            int value = -childValue;
+
+            if (value > best) {
+                best = value;
+                moves = 1 << cell;
+            } else if (value == best) {
+                moves |= 1 << cell;
+            }
+        }
+
+        return SOLVED | ((best + 1) << VALUE_SHIFT) | moves;
+    }
+
+}
@@ -1,17 +1,22 @@
 package me.josh.tictactoe.model.player;
 
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameState;
 import me.josh.tictactoe.model.Symbol;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a computer player that automatically selects moves using an AI algorithm.
  * Uses a strategic approach: win if possible, block opponent, prefer center, then corners, then sides.
+ * Works on any board size; on boards larger than 3x3 "sides" means any other free cell.
+ * Reads the game through its {@link GameState} view and does not allocate while choosing a move.
  */
 public class ComputerPlayer extends Player {
 
+    /** The four line directions as {rowStep, colStep}: horizontal, vertical, diagonal, anti-diagonal */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
     /**
      * Creates a new computer player.
      *
@@ -24,139 +29,159 @@ public class ComputerPlayer extends Player {
     /**
      * Chooses a move using strategic AI logic.
      *
-     * @param board The current game board state
-     * @return An array [row, col] for the chosen move, or null if no moves available
+     * @param state The current game state
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
      */
     @Override
-    public int[] getMove(Symbol[][] board) {
+    public int getMove(GameState state) {
+        BoardGeometry geometry = state.getGeometry();
+
         // 1. Try to win
-        int[] winMove = findWinningMove(board, this.symbol);
-        if (winMove != null) return winMove;
+        int winMove = findWinningMove(state, this.symbol);
+        if (winMove != NO_MOVE) return winMove;
 
         // 2. Block opponent from winning
         Symbol opponentSymbol = this.symbol.opposite();
-        int[] blockMove = findWinningMove(board, opponentSymbol);
-        if (blockMove != null) return blockMove;
+        int blockMove = findWinningMove(state, opponentSymbol);
+        if (blockMove != NO_MOVE) return blockMove;
 
         // 3. Take center if available
-        if (board[1][1] == Symbol.EMPTY) return new int[]{1, 1};
+        int center = geometry.index(geometry.rows / 2, geometry.cols / 2);
+        if (state.getSymbolAt(center) == Symbol.EMPTY) return center;
 
         // 4. Take a corner if available
-        int[] cornerMove = findCornerMove(board);
-        if (cornerMove != null) return cornerMove;
+        int cornerMove = findCornerMove(state);
+        if (cornerMove != NO_MOVE) return cornerMove;
 
-        // 5. Take any side
-        return findSideMove(board);
-        // No moves available
+        // 5. Take any side (or NO_MOVE if the board is full)
+        return findSideMove(state);
     }
 
     /**
-     * Finds a move that would complete three in a row for the given symbol.
+     * Finds a move that would complete a winning line for the given symbol.
      *
-     * @param board The current board state
+     * @param state The current game state
      * @param symbol The symbol to find a winning move for
-     * @return The winning move [row, col], or null if none exists
+     * @return The winning cell index, or {@link #NO_MOVE} if none exists
      */
-    private int[] findWinningMove(Symbol[][] board, Symbol symbol) {
-        // Check all rows
-        for (int row = 0; row < 3; row++) {
-            int[] move = checkLine(board, symbol, new int[][]{{row, 0}, {row, 1}, {row, 2}});
-            if (move != null) return move;
-        }
-
-        // Check all columns
-        for (int col = 0; col < 3; col++) {
-            int[] move = checkLine(board, symbol, new int[][]{{0, col}, {1, col}, {2, col}});
-            if (move != null) return move;
+    private int findWinningMove(GameState state, Symbol symbol) {
+        BoardGeometry geometry = state.getGeometry();
+
+        // Visit only the free cells, one bitboard word at a time
+        for (int word = 0; word < geometry.words; word++) {
+            long free = state.getBits(Symbol.EMPTY, word);
+            while (free != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+
+                if (completesLine(state, symbol, geometry.row(index), geometry.col(index))) {
+                    return index;
+                }
+            }
         }
-
-        // Check diagonal (top-left to bottom-right)
-        int[] move = checkLine(board, symbol, new int[][]{{0, 0}, {1, 1}, {2, 2}});
-        if (move != null) return move;
-
-        // Check diagonal (top-right to bottom-left)
-        move = checkLine(board, symbol, new int[][]{{0, 2}, {1, 1}, {2, 0}});
-
-        return move;
+        return NO_MOVE;
     }
 
     /**
-     * Checks if a line has two of the given symbol and one empty space.
-     * Returns the empty space if found.
+     * Checks if placing the given symbol on an empty cell would complete a winning line.
+     * Only the four lines through that cell are examined.
      *
-     * @param board The current board state
-     * @param symbol The symbol to check for
-     * @param positions The three positions that form a line
-     * @return The empty position [row, col] if this line can win, null otherwise
+     * @param state The current game state
+     * @param symbol The symbol to place
+     * @param row The row of the empty cell
+     * @param col The column of the empty cell
+     * @return true if the placement would give winLength in a row
      */
-    private int[] checkLine(Symbol[][] board, Symbol symbol, int[][] positions) {
-        int symbolCount = 0;
-        int emptyCount = 0;
-        int[] emptyPos = null;
-
-        for (int[] pos : positions) {
-            int row = pos[0];
-            int col = pos[1];
-
-            if (board[row][col] == symbol) {
-                symbolCount++;
-            } else if (board[row][col] == Symbol.EMPTY) {
-                emptyCount++;
-                emptyPos = new int[]{row, col};
-            }
+    private boolean completesLine(GameState state, Symbol symbol, int row, int col) {
+        int winLength = state.getGeometry().winLength;
+        for (int[] dir : DIRECTIONS) {
+            int count = 1 + countRun(state, symbol, row, col, dir[0], dir[1])
+                    + countRun(state, symbol, row, col, -dir[0], -dir[1]);
+            if (count >= winLength) return true;
         }
-
-        // If we have 2 of our symbol and 1 empty, this is a winning/blocking move
-        if (symbolCount == 2 && emptyCount == 1) return emptyPos;
-
-        return null;
+        return false;
     }
 
     /**
-     * Finds a random available position from a given list of positions.
-     *
-     * @param board The current board state
-     * @param positions The positions to check
-     * @return A random available position [row, col], or null if none available
+     * Counts consecutive cells holding the symbol, starting next to a cell and moving in one direction.
      */
-    private int[] findAvailablePosition(Symbol[][] board, int[][] positions) {
-        List<int[]> availablePositions = new ArrayList<>();
-
-        for (int[] pos : positions) {
-            if (board[pos[0]][pos[1]] == Symbol.EMPTY) {
-                availablePositions.add(pos);
-            }
+    private int countRun(GameState state, Symbol symbol, int row, int col, int rowStep, int colStep) {
+        BoardGeometry geometry = state.getGeometry();
+        int count = 0;
+        int r = row + rowStep;
+        int c = col + colStep;
+        while (geometry.contains(r, c) && state.getSymbolAt(r, c) == symbol) {
+            count++;
+            r += rowStep;
+            c += colStep;
         }
+        return count;
+    }
 
-        if (availablePositions.isEmpty()) {
-            return null;
+    /**
+     * Finds an available corner position.
+     *
+     * @param state The current game state
+     * @return A random available corner cell index, or {@link #NO_MOVE} if none available
+     */
+    private int findCornerMove(GameState state) {
+        BoardGeometry geometry = state.getGeometry();
+        int topRight = geometry.cols - 1;
+        int bottomLeft = geometry.cells - geometry.cols;
+        int bottomRight = geometry.cells - 1;
+
+        int available = countFree(state, 0) + countFree(state, topRight)
+                + countFree(state, bottomLeft) + countFree(state, bottomRight);
+        if (available == 0) {
+            return NO_MOVE;
         }
 
-        // Return a random available position
-        int randomIndex = ThreadLocalRandom.current().nextInt(availablePositions.size());
-        return availablePositions.get(randomIndex);
+        // Return a random available corner
+        int pick = ThreadLocalRandom.current().nextInt(available);
+        if (state.getSymbolAt(0) == Symbol.EMPTY && pick-- == 0) return 0;
+        if (state.getSymbolAt(topRight) == Symbol.EMPTY && pick-- == 0) return topRight;
+        if (state.getSymbolAt(bottomLeft) == Symbol.EMPTY && pick == 0) return bottomLeft;
+        return bottomRight;
     }
 
     /**
-     * Finds an available corner position.
-     *
-     * @param board The current board state
-     * @return A random available corner [row, col], or null if none available
+     * Returns 1 if a cell is empty, 0 otherwise.
      */
-    private int[] findCornerMove(Symbol[][] board) {
-        int[][] cornerPositions = {{0, 0}, {0, 2}, {2, 0}, {2, 2}};
-        return findAvailablePosition(board, cornerPositions);
+    private static int countFree(GameState state, int index) {
+        return (state.getSymbolAt(index) == Symbol.EMPTY) ? 1 : 0;
     }
 
     /**
      * Finds an available side position (not corner or center).
+     * By the time this is called the center and corners are taken, so any free cell qualifies;
+     * on larger boards this is any remaining free cell.
      *
-     * @param board The current board state
-     * @return A random available side [row, col], or null if none available
+     * @param state The current game state
+     * @return A random available side cell index, or {@link #NO_MOVE} if none available
      */
-    private int[] findSideMove(Symbol[][] board) {
-        int[][] sidePositions = {{0, 1}, {1, 0}, {1, 2}, {2, 1}};
-        return findAvailablePosition(board, sidePositions);
+    int findSideMove(GameState state) {
+        BoardGeometry geometry = state.getGeometry();
+        int available = geometry.cells - state.getMoveCount();
+        if (available == 0) {
+            return NO_MOVE;
+        }
+
+        // Skip whole words until the word holding the chosen free cell
+        int pick = ThreadLocalRandom.current().nextInt(available);
+        for (int word = 0; word < geometry.words; word++) {
+            long free = state.getBits(Symbol.EMPTY, word);
+            int count = Long.bitCount(free);
+            if (pick >= count) {
+                pick -= count;
+                continue;
+            }
+
+            for (int i = 0; i < pick; i++) {
+                free &= free - 1;
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(free);
+        }
+        return NO_MOVE;
     }
 
-}
\ No newline at end of file
+}
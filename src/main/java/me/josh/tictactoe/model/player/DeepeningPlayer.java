@@ -0,0 +1,74 @@
+package me.josh.tictactoe.model.player;
+
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.ai.IterativeDeepeningSearch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computer player that searches deeper and deeper until its time per move runs out.
+ * Always answers within its budget (plus the few nodes between clock checks), however large the board,
+ * and plays perfectly on boards small enough to solve within the budget.
+ */
+public class DeepeningPlayer extends ComputerPlayer {
+
+    /** Time per move used by the default player */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 50;
+
+    /** The search, reused between moves */
+    private final IterativeDeepeningSearch search = new IterativeDeepeningSearch();
+
+    /** Time allowed for each move in nanoseconds */
+    private final long timeBudgetNanos;
+
+    /**
+     * Creates a player with the default time budget.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     */
+    public DeepeningPlayer(Symbol symbol) {
+        this(symbol, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Creates a player with the given time budget.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     * @param timeBudgetMillis Time allowed for each move
+     */
+    public DeepeningPlayer(Symbol symbol, long timeBudgetMillis) {
+        super(symbol);
+        if (timeBudgetMillis <= 0) throw new IllegalArgumentException("Time budget must be positive");
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Chooses the best move found within this player's time budget.
+     *
+     * @param state The current game state
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state) {
+        return getMove(state, System.nanoTime() + timeBudgetNanos);
+    }
+
+    /**
+     * Chooses the best move found before the deadline or this player's own budget, whichever comes first.
+     *
+     * @param state The current game state
+     * @param deadlineNanos The {@link System#nanoTime()} value by which to return
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state, long deadlineNanos) {
+        long ownDeadline = System.nanoTime() + timeBudgetNanos;
+        // Compare as differences, since nanoTime values may wrap
+        long deadline = (deadlineNanos - ownDeadline < 0) ? deadlineNanos : ownDeadline;
+
+        // -1 when the game is over, which is NO_MOVE
+        return search.bestMove(state, deadline);
+    }
+
+}
@@ -0,0 +1,93 @@
+package me.josh.tictactoe.model.player;
+
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.ai.IterativeDeepeningSearch;
+import me.josh.tictactoe.model.ai.PerfectPlayTable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computer player whose strength and cost per move are set by a {@link Difficulty} tier.
+ * Every move returns within the tier's time cap, or the caller's deadline if that is sooner
+ * (plus the few nodes between clock checks).
+ */
+public class DifficultyPlayer extends ComputerPlayer {
+
+    /** The strength tier of this player */
+    public final Difficulty difficulty;
+
+    /** The search of the searching tiers, reused between moves, or null */
+    private final IterativeDeepeningSearch search;
+
+    /** Time allowed for each move in nanoseconds */
+    private final long maxMoveNanos;
+
+    /**
+     * Creates a player of the given strength.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     * @param difficulty The difficulty tier
+     */
+    public DifficultyPlayer(Symbol symbol, Difficulty difficulty) {
+        super(symbol);
+        this.difficulty = difficulty;
+        this.search = (difficulty.searchDepth > 0) ? new IterativeDeepeningSearch() : null;
+        this.maxMoveNanos = TimeUnit.MILLISECONDS.toNanos(difficulty.maxMoveMillis);
+    }
+
+    /**
+     * Chooses a move within this player's time cap.
+     *
+     * @param state The current game state
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state) {
+        return getMove(state, System.nanoTime() + maxMoveNanos);
+    }
+
+    /**
+     * Chooses a move before the deadline or this player's own time cap, whichever comes first.
+     *
+     * @param state The current game state
+     * @param deadlineNanos The {@link System#nanoTime()} value by which to return
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state, long deadlineNanos) {
+        if (state.isGameOver()) return NO_MOVE;
+        if (difficulty.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < difficulty.errorRate) {
+            return findSideMove(state);
+        }
+
+        long ownDeadline = System.nanoTime() + maxMoveNanos;
+        // Compare as differences, since nanoTime values may wrap
+        long deadline = (deadlineNanos - ownDeadline < 0) ? deadlineNanos : ownDeadline;
+
+        return switch (difficulty) {
+            case EASY -> findSideMove(state);
+            case MEDIUM -> super.getMove(state);
+            case HARD, PERFECT -> {
+                if (difficulty == Difficulty.PERFECT && state.getGeometry().isStandard()) {
+                    int me = (int) state.getBits(symbol, 0);
+                    int opp = (int) state.getBits(symbol.opposite(), 0);
+                    yield PerfectPlayTable.bestMove(me, opp);
+                }
+                yield search.bestMove(state, deadline, difficulty.searchDepth);
+            }
+        };
+    }
+
+    /**
+     * Returns a string representation of this player.
+     *
+     * @return The player's name, tier and symbol, e.g. "Computer HARD (O)"
+     */
+    @Override
+    public String toString() {
+        return name + " " + difficulty + " (" + symbol + ")";
+    }
+
+}
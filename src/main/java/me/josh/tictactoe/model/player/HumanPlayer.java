@@ -1,5 +1,6 @@
 package me.josh.tictactoe.model.player;
 
+import me.josh.tictactoe.model.GameState;
 import me.josh.tictactoe.model.Symbol;
 
 /**
@@ -21,14 +22,14 @@ public class HumanPlayer extends Player {
 
     /**
      * Human players don't autonomously choose moves - they respond to GUI input.
-     * This method returns null as moves are provided through the controller.
+     * This method returns NO_MOVE as moves are provided through the controller.
      *
-     * @param board The current game board state
-     * @return null (human moves are handled by controller)
+     * @param state The current game state
+     * @return {@link #NO_MOVE} (human moves are handled by controller)
      */
     @Override
-    public int[] getMove(Symbol[][] board) {
-        return null;
+    public int getMove(GameState state) {
+        return NO_MOVE;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package me.josh.tictactoe.model.player;
+
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.ai.MonteCarloTreeSearch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computer player that chooses moves with Monte Carlo tree search.
+ * Works on boards of any size, where exhaustive search is out of reach. Each move runs
+ * a fixed number of iterations per thread and/or until a time budget expires, so more
+ * threads (or more time) buy stronger play.
+ */
+public class MctsPlayer extends ComputerPlayer {
+
+    /** Iterations per thread used by the default player */
+    public static final int DEFAULT_ITERATIONS = 5_000;
+
+    /** The search, reused between moves */
+    private final MonteCarloTreeSearch search;
+
+    /** Iterations per thread for each move (0 for no limit) */
+    private final int iterations;
+
+    /** Time allowed for each move in nanoseconds (0 for no limit) */
+    private final long timeBudgetNanos;
+
+    /**
+     * Creates an MCTS player with the default iteration budget, searching on every core.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     */
+    public MctsPlayer(Symbol symbol) {
+        this(symbol, DEFAULT_ITERATIONS, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an MCTS player with the given budgets.
+     * At least one of the two budgets must be set.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     * @param iterations Iterations per thread for each move (0 for no limit)
+     * @param timeBudgetMillis Time allowed for each move (0 for no limit)
+     * @param threads The number of search threads
+     */
+    public MctsPlayer(Symbol symbol, int iterations, long timeBudgetMillis, int threads) {
+        super(symbol);
+        if (iterations <= 0 && timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("Either an iteration or a time budget is required");
+        }
+        this.search = new MonteCarloTreeSearch(threads, MonteCarloTreeSearch.DEFAULT_MAX_NODES);
+        this.iterations = iterations;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Chooses the move the search visited most.
+     *
+     * @param state The current game state
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state) {
+        // -1 when the game is over, which is NO_MOVE
+        return search.bestMove(state, iterations, timeBudgetNanos);
+    }
+
+    /**
+     * Chooses the move the search visited most, stopping at the deadline if the budget runs longer.
+     *
+     * @param state The current game state
+     * @param deadlineNanos The {@link System#nanoTime()} value by which to return
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state, long deadlineNanos) {
+        long remaining = Math.max(1, deadlineNanos - System.nanoTime());
+        long budget = (timeBudgetNanos > 0) ? Math.min(timeBudgetNanos, remaining) : remaining;
+        return search.bestMove(state, iterations, budget);
+    }
+
+}
@@ -0,0 +1,42 @@
+package me.josh.tictactoe.model.player;
+
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.ai.Negamax;
+
+/**
+ * Computer player that plays perfectly using a negamax search instead of the fixed heuristic.
+ * Never loses: it wins whenever a forced win exists and otherwise holds the draw.
+ */
+public class NegamaxPlayer extends ComputerPlayer {
+
+    /**
+     * Creates a new negamax player.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     */
+    public NegamaxPlayer(Symbol symbol) {
+        super(symbol);
+    }
+
+    /**
+     * Chooses the best move found by searching the full game tree.
+     *
+     * @param state The current game state
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state) {
+        if (!state.getGeometry().isStandard()) {
+            return super.getMove(state);
+        }
+
+        // The whole 3x3 board fits in the low bits of the first word
+        int me = (int) state.getBits(symbol, 0);
+        int opp = (int) state.getBits(symbol.opposite(), 0);
+
+        // -1 when the game is decided, which is NO_MOVE
+        return Negamax.bestMove(me, opp);
+    }
+
+}
@@ -1,5 +1,6 @@
 package me.josh.tictactoe.model.player;
 
+import me.josh.tictactoe.model.GameState;
 import me.josh.tictactoe.model.Symbol;
 
 /**
@@ -9,6 +10,9 @@ import me.josh.tictactoe.model.Symbol;
  */
 public abstract class Player {
 
+    /** Returned by {@link #getMove} when the player has no move to make */
+    public static final int NO_MOVE = -1;
+
     /** The symbol this player uses on the board (X or O) */
     public final Symbol symbol;
 
@@ -27,13 +31,27 @@ public abstract class Player {
     }
 
     /**
-     * Determines this player's next move based on the current board state.
+     * Determines this player's next move based on the current game state.
      * Subclasses implement their own strategy (human input, AI algorithm, etc.).
+     * The state is a live read-only view of the game, so it must not be kept after returning.
+     *
+     * @param state The current state of the game
+     * @return The cell index (row * cols + col) of the chosen position, or {@link #NO_MOVE} if no valid move
+     */
+    public abstract int getMove(GameState state);
+
+    /**
+     * Determines this player's next move, returning by the given deadline.
+     * Players whose search can be cut short override this to return their best move so far
+     * when time runs out; others ignore the deadline and behave like {@link #getMove(GameState)}.
      *
-     * @param board The current state of the game board
-     * @return An array [row, col] indicating the chosen position, or null if no valid move
+     * @param state The current state of the game
+     * @param deadlineNanos The {@link System#nanoTime()} value by which to return
+     * @return The cell index of the chosen position, or {@link #NO_MOVE} if no valid move
      */
-    public abstract int[] getMove(Symbol[][] board);
+    public int getMove(GameState state, long deadlineNanos) {
+        return getMove(state);
+    }
 
     /**
      * Returns a string representation of this player.
@@ -13,16 +13,36 @@ public class PlayerFactory {
      *
      * @param type The type of player to create
      * @param symbol The symbol this player will use (X or O)
-     * @param name The player's name (used for human players, ignored for computer)
+     * @param name The player's name (used for human and remote players, ignored for computer)
      * @return A new player instance
      */
     public static Player createPlayer(PlayerType type, Symbol symbol, String name) {
         return switch (type) {
             case HUMAN -> new HumanPlayer(symbol, name);
             case COMPUTER -> new ComputerPlayer(symbol);
+            case NEGAMAX -> new NegamaxPlayer(symbol);
+            case TABLE -> new TablePlayer(symbol);
+            case MCTS -> new MctsPlayer(symbol);
+            case DEEPENING -> new DeepeningPlayer(symbol);
+            case REMOTE -> new RemotePlayer(symbol, name);
+            case EASY -> new DifficultyPlayer(symbol, Difficulty.EASY);
+            case MEDIUM -> new DifficultyPlayer(symbol, Difficulty.MEDIUM);
+            case HARD -> new DifficultyPlayer(symbol, Difficulty.HARD);
+            case PERFECT -> new DifficultyPlayer(symbol, Difficulty.PERFECT);
         };
     }
 
+    /**
+     * Creates a computer player of the given strength.
+     *
+     * @param difficulty The difficulty tier
+     * @param symbol The symbol this player will use
+     * @return A new DifficultyPlayer
+     */
+    public static Player createPlayer(Difficulty difficulty, Symbol symbol) {
+        return new DifficultyPlayer(symbol, difficulty);
+    }
+
     /**
      * Creates a human player with the given name.
      *
@@ -44,4 +64,58 @@ public class PlayerFactory {
         return new ComputerPlayer(symbol);
     }
 
+    /**
+     * Creates a computer player that plays perfectly using a negamax search.
+     *
+     * @param symbol The symbol this player will use
+     * @return A new NegamaxPlayer
+     */
+    public static Player createNegamaxPlayer(Symbol symbol) {
+        return new NegamaxPlayer(symbol);
+    }
+
+    /**
+     * Creates a computer player that plays perfectly from a precomputed table.
+     *
+     * @param symbol The symbol this player will use
+     * @return A new TablePlayer
+     */
+    public static Player createTablePlayer(Symbol symbol) {
+        return new TablePlayer(symbol);
+    }
+
+    /**
+     * Creates a computer player that searches with Monte Carlo tree search on every core.
+     *
+     * @param symbol The symbol this player will use
+     * @return A new MctsPlayer
+     */
+    public static Player createMctsPlayer(Symbol symbol) {
+        return new MctsPlayer(symbol);
+    }
+
+    /**
+     * Creates a Monte Carlo tree search player with custom budgets.
+     *
+     * @param symbol The symbol this player will use
+     * @param iterations Iterations per thread for each move (0 for no limit)
+     * @param timeBudgetMillis Time allowed for each move (0 for no limit)
+     * @param threads The number of search threads
+     * @return A new MctsPlayer
+     */
+    public static Player createMctsPlayer(Symbol symbol, int iterations, long timeBudgetMillis, int threads) {
+        return new MctsPlayer(symbol, iterations, timeBudgetMillis, threads);
+    }
+
+    /**
+     * Creates a computer player that deepens its search until its time per move runs out.
+     *
+     * @param symbol The symbol this player will use
+     * @param timeBudgetMillis Time allowed for each move
+     * @return A new DeepeningPlayer
+     */
+    public static Player createDeepeningPlayer(Symbol symbol, long timeBudgetMillis) {
+        return new DeepeningPlayer(symbol, timeBudgetMillis);
+    }
+
 }
\ No newline at end of file
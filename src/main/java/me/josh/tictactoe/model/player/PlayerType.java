@@ -2,8 +2,35 @@ package me.josh.tictactoe.model.player;
 
 /**
  * Enum representing the different types of players.
+ * Ordinals are stored in game logs, so new types must be added at the end.
  */
 public enum PlayerType {
     HUMAN,
-    COMPUTER
-}
\ No newline at end of file
+    COMPUTER,
+    NEGAMAX,
+    TABLE,
+    MCTS,
+    DEEPENING,
+    REMOTE,
+    EASY,
+    MEDIUM,
+    HARD,
+    PERFECT;
+
+    /**
+     * Gets the type of an existing player.
+     *
+     * @param player The player
+     * @return The type that {@link PlayerFactory} would create for it
+     */
+    public static PlayerType of(Player player) {
+        if (player instanceof RemotePlayer) return REMOTE;
+        if (player instanceof DifficultyPlayer leveled) return leveled.difficulty.type;
+        if (player instanceof TablePlayer) return TABLE;
+        if (player instanceof NegamaxPlayer) return NEGAMAX;
+        if (player instanceof MctsPlayer) return MCTS;
+        if (player instanceof DeepeningPlayer) return DEEPENING;
+        if (player instanceof ComputerPlayer) return COMPUTER;
+        return HUMAN;
+    }
+}
@@ -0,0 +1,34 @@
+package me.josh.tictactoe.model.player;
+
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+
+/**
+ * Represents a player on the other end of a network connection.
+ * Like a human player, it does not choose moves itself: they arrive over the
+ * network and are applied to the game by the network server or client.
+ */
+public class RemotePlayer extends Player {
+
+    /**
+     * Creates a new remote player.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     * @param name The player's name
+     */
+    public RemotePlayer(Symbol symbol, String name) {
+        super(symbol, name);
+    }
+
+    /**
+     * Remote players' moves are delivered by the network connection, not chosen here.
+     *
+     * @param state The current game state
+     * @return {@link #NO_MOVE} (remote moves are applied as they arrive)
+     */
+    @Override
+    public int getMove(GameState state) {
+        return NO_MOVE;
+    }
+
+}
@@ -0,0 +1,42 @@
+package me.josh.tictactoe.model.player;
+
+import me.josh.tictactoe.model.GameState;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.ai.PerfectPlayTable;
+
+/**
+ * Computer player that plays perfectly by looking up precomputed results.
+ * Picks randomly among all optimal moves, so games against it vary.
+ */
+public class TablePlayer extends ComputerPlayer {
+
+    /**
+     * Creates a new table player.
+     *
+     * @param symbol The symbol this player uses (X or O)
+     */
+    public TablePlayer(Symbol symbol) {
+        super(symbol);
+    }
+
+    /**
+     * Chooses an optimal move from the perfect-play table.
+     *
+     * @param state The current game state
+     * @return The cell index of the chosen move, or {@link #NO_MOVE} if no moves available
+     */
+    @Override
+    public int getMove(GameState state) {
+        if (!state.getGeometry().isStandard()) {
+            return super.getMove(state);
+        }
+
+        // The whole 3x3 board fits in the low bits of the first word
+        int me = (int) state.getBits(symbol, 0);
+        int opp = (int) state.getBits(symbol.opposite(), 0);
+
+        // -1 when the game is decided, which is NO_MOVE
+        return PerfectPlayTable.bestMove(me, opp);
+    }
+
+}
@@ -0,0 +1,380 @@
+package me.josh.tictactoe.net;
+
+import me.josh.tictactoe.metrics.GameMetrics;
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameObserver;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.ComputerPlayer;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.RemotePlayer;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Network game client speaking the {@link Protocol} wire format.<br>
+ * The client keeps a local copy of the game in which the opponent is a {@link RemotePlayer}.
+ * Moves made on the local copy by the local player (e.g. through a {@code GameController})
+ * are sent to the server, and moves arriving from the server are applied to the local copy,
+ * so observers of the local game see the same events as in an offline game.
+ * If the local player is a computer player, it replies automatically.<br>
+ * A client made with {@link #watch} is a spectator of a {@link SpectatorServer}: both players
+ * are remote and the local game only follows the server.
+ */
+public class GameClient implements Closeable, GameObserver {
+
+    private final SocketChannel channel;
+
+    /** Local copy of the game */
+    private final TicTacToeGame game;
+
+    /** The player on this side of the connection, or null for a spectator */
+    private final Player localPlayer;
+
+    /** Runs every update of the local game, e.g. on the Swing event thread */
+    private final Executor executor;
+
+    /** Reused buffer for outgoing frames, guarded by itself */
+    private final ByteBuffer outgoing = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+
+    /** Set while a server event is being applied, so it is not echoed back */
+    private boolean applyingRemote;
+
+    private volatile boolean closed;
+
+    private GameClient(SocketChannel channel, TicTacToeGame game, Player localPlayer, Executor executor) {
+        this.channel = channel;
+        this.game = game;
+        this.localPlayer = localPlayer;
+        this.executor = executor;
+    }
+
+    /**
+     * Connects to a server and waits until it assigns a symbol and board.
+     * Register observers on {@link #getGame()} and then call {@link #start()}.
+     *
+     * @param host The server host
+     * @param port The server port
+     * @param localPlayer Creates the local player for the symbol the server assigns
+     * @param executor Runs every update of the local game (use a direct executor for headless clients)
+     * @return The connected client
+     * @throws IOException if the connection fails or the server does not send a valid welcome
+     */
+    public static GameClient connect(String host, int port, Function<Symbol, ? extends Player> localPlayer,
+                                     Executor executor) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            ByteBuffer welcome = ByteBuffer.allocate(Protocol.frameLength(Protocol.WELCOME));
+            readFully(channel, welcome);
+            welcome.flip();
+            if (welcome.get() != Protocol.WELCOME) {
+                throw new IOException("Expected a welcome frame");
+            }
+
+            Symbol symbol = Protocol.getSymbol(welcome);
+            BoardGeometry geometry = BoardGeometry.of(Protocol.getU16(welcome), Protocol.getU16(welcome),
+                    Protocol.getU16(welcome));
+
+            Player local = localPlayer.apply(symbol);
+            Player remote = new RemotePlayer(symbol.opposite(), "Opponent");
+            TicTacToeGame game = (symbol == Symbol.X)
+                    ? new TicTacToeGame(local, remote, geometry)
+                    : new TicTacToeGame(remote, local, geometry);
+
+            GameClient client = new GameClient(channel, game, local, executor);
+            game.observers.add(client);
+            return client;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Connects to a spectator server and waits until it describes the game.
+     * Register observers on {@link #getGame()} and then call {@link #start()}; the game in
+     * progress is replayed onto the local copy first, then followed live.
+     *
+     * @param host The server host
+     * @param port The server port
+     * @param executor Runs every update of the local game (use a direct executor for headless clients)
+     * @return The connected spectator client
+     * @throws IOException if the connection fails or the server is not a spectator server
+     */
+    public static GameClient watch(String host, int port, Executor executor) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        try {
+            ByteBuffer watching = ByteBuffer.allocate(Protocol.frameLength(Protocol.WATCHING));
+            readFully(channel, watching);
+            watching.flip();
+            if (watching.get() != Protocol.WATCHING) {
+                throw new IOException("Expected a watching frame");
+            }
+
+            Symbol first = Protocol.getSymbol(watching);
+            BoardGeometry geometry = BoardGeometry.of(Protocol.getU16(watching), Protocol.getU16(watching),
+                    Protocol.getU16(watching));
+            TicTacToeGame game = new TicTacToeGame(new RemotePlayer(first, "Player 1"),
+                    new RemotePlayer(first.opposite(), "Player 2"), geometry);
+
+            GameClient client = new GameClient(channel, game, null, executor);
+            game.observers.add(client);
+            return client;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the local copy of the game.
+     *
+     * @return The game mirrored from the server
+     */
+    public TicTacToeGame getGame() {
+        return game;
+    }
+
+    /**
+     * Gets the player on this side of the connection.
+     *
+     * @return The local player, or null for a spectator
+     */
+    public Player getLocalPlayer() {
+        return localPlayer;
+    }
+
+    /**
+     * Starts receiving server events on a new daemon thread.
+     * If the local player is a computer and moves first, it moves now, before the thread starts,
+     * so with a direct executor the two never update the local game at once.
+     *
+     * @return The receiving thread
+     */
+    public Thread start() {
+        executor.execute(this::playLocalTurn);
+        Thread thread = new Thread(this::receive, "game-client");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Disconnects from the server.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Reads frames until the connection closes and applies each one to the local game.
+     */
+    private void receive() {
+        ByteBuffer in = ByteBuffer.allocate(1024);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                int needed = 0;
+                while (in.hasRemaining()) {
+                    int length = Protocol.frameLength(in);
+                    if (length < 0) throw new IOException("Unknown frame type " + in.get(in.position()));
+                    if (length == 0 || in.remaining() < length) {
+                        needed = length;
+                        break;
+                    }
+
+                    dispatch(in.get(), in);
+                }
+                in.compact();
+
+                // Only snapshots can outgrow the buffer
+                if (needed > in.capacity()) {
+                    ByteBuffer larger = ByteBuffer.allocate(needed);
+                    in.flip();
+                    larger.put(in);
+                    in = larger;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Connection lost; fall through and close
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Decodes one frame and hands it to the executor.
+     * Turn and game-over frames need no action: the local game derives them from the moves.
+     * Neither do rejections, since the server follows each with a snapshot that replaces the
+     * refused move on the local game.
+     */
+    private void dispatch(byte type, ByteBuffer in) {
+        switch (type) {
+            case Protocol.MOVE_MADE -> {
+                int cell = Protocol.getU16(in);
+                Symbol symbol = Protocol.getSymbol(in);
+                executor.execute(() -> applyMove(cell, symbol));
+            }
+            case Protocol.MOVE_UNDONE -> {
+                int cell = Protocol.getU16(in);
+                Protocol.getSymbol(in);
+                executor.execute(() -> applyUndo(cell));
+            }
+            case Protocol.SNAPSHOT -> {
+                int[] moves = new int[Protocol.getU16(in)];
+                for (int i = 0; i < moves.length; i++) {
+                    moves[i] = Protocol.getU16(in);
+                }
+                executor.execute(() -> applySnapshot(moves));
+            }
+            case Protocol.GAME_RESET -> executor.execute(this::applyReset);
+            case Protocol.TURN, Protocol.GAME_OVER -> in.get();
+            case Protocol.REJECTED -> Protocol.getU16(in);
+            default -> throw new IllegalArgumentException("Unexpected frame type " + type);
+        }
+    }
+
+    /**
+     * Applies a move reported by the server, unless it is our own move already on the board.
+     */
+    private void applyMove(int cell, Symbol symbol) {
+        if (game.getSymbolAt(cell) == symbol) return;
+
+        applyingRemote = true;
+        try {
+            game.makeMove(cell);
+        } finally {
+            applyingRemote = false;
+        }
+        playLocalTurn();
+    }
+
+    /**
+     * Takes back a move reported undone by the server.
+     */
+    private void applyUndo(int cell) {
+        int last = game.getMoveCount() - 1;
+        if (last < 0 || game.getHistoryMove(last) != cell) return;
+
+        applyingRemote = true;
+        try {
+            game.undo();
+        } finally {
+            applyingRemote = false;
+        }
+    }
+
+    /**
+     * Replaces the local game with the moves of the game in progress on the server,
+     * either on joining as a spectator or after the server refused a local move.
+     */
+    private void applySnapshot(int[] moves) {
+        applyingRemote = true;
+        try {
+            if (game.getMoveCount() > 0 || game.gameOver) {
+                game.reset();
+            }
+            for (int cell : moves) {
+                game.makeMove(cell);
+            }
+        } finally {
+            applyingRemote = false;
+        }
+        playLocalTurn();
+    }
+
+    /**
+     * Applies a reset reported by the server, unless the local game is already fresh.
+     */
+    private void applyReset() {
+        if (game.getMoveCount() > 0 || game.gameOver) {
+            applyingRemote = true;
+            try {
+                game.reset();
+            } finally {
+                applyingRemote = false;
+            }
+        }
+        playLocalTurn();
+    }
+
+    /**
+     * Lets a local computer player move if it is its turn.
+     */
+    private void playLocalTurn() {
+        if (!game.gameOver && game.getCurrentPlayer() == localPlayer && localPlayer instanceof ComputerPlayer) {
+            game.makeMove(GameMetrics.chooseMove(localPlayer, game));
+        }
+    }
+
+    /**
+     * Sends one frame to the server.
+     */
+    private void send(byte type, int cell) {
+        if (closed) return;
+        synchronized (outgoing) {
+            outgoing.clear();
+            outgoing.put(type);
+            if (type == Protocol.MOVE) Protocol.putU16(outgoing, cell);
+            outgoing.flip();
+            try {
+                while (outgoing.hasRemaining()) {
+                    channel.write(outgoing);
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Reads until the buffer is full.
+     */
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new EOFException("Server closed the connection");
+        }
+    }
+
+    @Override
+    public void onMoveMade(int row, int col, Symbol symbol) {
+        // Forward moves the local player made on the local game
+        if (!applyingRemote && localPlayer != null && symbol == localPlayer.symbol) {
+            send(Protocol.MOVE, game.geometry.index(row, col));
+        }
+    }
+
+    @Override
+    public void onGameOver(Player winner) {
+    }
+
+    @Override
+    public void onTurnChanged(Player currentPlayer) {
+    }
+
+    @Override
+    public void onGameReset() {
+        // Forward "New Game" presses made on the local game
+        if (!applyingRemote && localPlayer != null) {
+            send(Protocol.RESET, 0);
+            playLocalTurn();
+        }
+    }
+
+}
@@ -0,0 +1,598 @@
+package me.josh.tictactoe.net;
+
+import me.josh.tictactoe.metrics.GameMetrics;
+import me.josh.tictactoe.metrics.JmxExporter;
+import me.josh.tictactoe.metrics.MetricsRegistry;
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameObserver;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerFactory;
+import me.josh.tictactoe.model.player.PlayerType;
+import me.josh.tictactoe.model.player.RemotePlayer;
+import me.josh.tictactoe.record.GameLogWriter;
+import me.josh.tictactoe.record.GameRecorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Network game server speaking the {@link Protocol} wire format.<br>
+ * A single selector thread owns every connection and every game, so games need no locking
+ * and one thread can serve tens of thousands of mostly idle connections.
+ * Clients are either paired with each other (the first to connect plays X) or, if an
+ * opponent type is configured, each play their own game against a server-side AI.
+ * Replies are buffered per connection and written once per batch of input.<br>
+ * Server-side AI moves are searched on a pool of worker threads, on a copy of the game, so a
+ * slow search never stalls the other connections. Each finished search is posted back to the
+ * selector thread, which applies the move unless the game was reset or abandoned meanwhile.
+ */
+public class GameServer implements Closeable {
+
+    /** Bytes of unread input kept per connection */
+    private static final int INPUT_BUFFER_SIZE = 64;
+
+    /** Initial bytes of pending output per connection; grows up to {@link #MAX_PENDING_OUTPUT} if a client stops reading */
+    private static final int OUTPUT_BUFFER_SIZE = 64;
+
+    /** Bytes of output a client may leave unread before it is disconnected */
+    private static final int MAX_PENDING_OUTPUT = 64 * 1024;
+
+    /** The board shape every game is played on */
+    private final BoardGeometry geometry;
+
+    /** The server-side AI each client plays against, or null to pair clients */
+    private final PlayerType opponent;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+
+    /** Connections with output waiting to be flushed */
+    private final Queue<Connection> dirty = new ArrayDeque<>();
+
+    /** Searches server-side AI moves off the selector thread, or null when pairing clients */
+    private final ExecutorService aiExecutor;
+
+    /** Finished AI searches waiting to be applied on the selector thread */
+    private final Queue<Runnable> aiResults = new ConcurrentLinkedQueue<>();
+
+    /** Scratch buffer each event is encoded into once before being copied to its recipients */
+    private final ByteBuffer frame = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+
+    /** Receives every finished game, or null */
+    private volatile GameLogWriter log;
+
+    /** A client waiting for an opponent (pairing mode only) */
+    private Connection waiting;
+
+    /** Set when the server is closed */
+    private volatile boolean closed;
+
+    /**
+     * Creates a server listening on the given port.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param geometry The board shape to play on
+     * @param opponent The AI each client plays against, or null to pair clients with each other
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, BoardGeometry geometry, PlayerType opponent) throws IOException {
+        this.geometry = geometry;
+        this.opponent = opponent;
+        this.aiExecutor = (opponent == null) ? null
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "game-server-ai");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Records every game started from now on.
+     *
+     * @param log The log to append to, or null to stop recording
+     */
+    public void recordTo(GameLogWriter log) {
+        this.log = log;
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The bound port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Runs the server on a new daemon thread.
+     *
+     * @return The server thread
+     */
+    public Thread start() {
+        Thread thread = new Thread(this::run, "game-server-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Runs the event loop on the calling thread until the server is closed.
+     */
+    public void run() {
+        try {
+            while (!closed) {
+                selector.select();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+
+                Runnable result;
+                while ((result = aiResults.poll()) != null) {
+                    result.run();
+                }
+
+                flushDirty();
+            }
+        } catch (IOException e) {
+            if (!closed) throw new IllegalStateException("Server selector failed", e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Stops the server and closes every connection.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Dispatches one ready key.
+     */
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            disconnect(connection);
+        }
+    }
+
+    /**
+     * Accepts pending connections and seats each one in a game.
+     */
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                seat(connection);
+            }
+        } catch (IOException e) {
+            // A failed accept only affects that client
+        }
+    }
+
+    /**
+     * Starts a game for a new connection, or parks it until an opponent arrives.
+     */
+    private void seat(Connection connection) {
+        if (opponent != null) {
+            Player remote = new RemotePlayer(Symbol.X, "Player");
+            Player ai = PlayerFactory.createPlayer(opponent, Symbol.O, null);
+            new Match(new TicTacToeGame(remote, ai, geometry), connection, null);
+        } else if (waiting == null) {
+            waiting = connection;
+        } else {
+            Connection first = waiting;
+            waiting = null;
+            Player x = new RemotePlayer(Symbol.X, "Player 1");
+            Player o = new RemotePlayer(Symbol.O, "Player 2");
+            new Match(new TicTacToeGame(x, o, geometry), first, connection);
+        }
+    }
+
+    /**
+     * Closes a connection and ends its game; an opponent loses its game too and is disconnected.
+     */
+    private void disconnect(Connection connection) {
+        if (connection.closed) return;
+        connection.closed = true;
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // Already closing
+        }
+
+        if (waiting == connection) {
+            waiting = null;
+        }
+        Match match = connection.match;
+        if (match != null) {
+            Connection other = (match.first == connection) ? match.second : match.first;
+            if (other != null) disconnect(other);
+        }
+    }
+
+    /**
+     * Writes out buffered replies for every connection that has some.
+     */
+    private void flushDirty() {
+        Connection connection;
+        while ((connection = dirty.poll()) != null) {
+            connection.queued = false;
+            if (connection.closed) continue;
+            try {
+                connection.flush();
+            } catch (IOException e) {
+                disconnect(connection);
+            }
+        }
+    }
+
+    /**
+     * Closes every channel after the event loop stops.
+     */
+    private void closeQuietly() {
+        if (aiExecutor != null) {
+            aiExecutor.shutdownNow();
+        }
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // Shutting down anyway
+        }
+    }
+
+    /**
+     * One game and the one or two clients playing it.
+     * Receives the game's events and forwards each one, encoded once, to every client.
+     */
+    private final class Match implements GameObserver {
+
+        private final TicTacToeGame game;
+        private final Connection first;
+        private final Connection second;
+
+        /** Bumped on every reset, so a search started before it is discarded */
+        private int generation;
+
+        /** Whether a server-side AI move is being searched */
+        private boolean thinking;
+
+        Match(TicTacToeGame game, Connection first, Connection second) {
+            this.game = game;
+            this.first = first;
+            this.second = second;
+
+            first.join(this, game.player1);
+            if (second != null) second.join(this, game.player2);
+
+            game.observers.add(this);
+            GameLogWriter recording = log;
+            if (recording != null) {
+                // Off the selector thread, so a slow disk never delays the clients
+                game.observers.addAsync(new GameRecorder(recording, game));
+            }
+            playServerTurns();
+        }
+
+        /**
+         * Applies a client's move if it is that client's turn and the move is legal.
+         * A refused move is followed by a snapshot of the game, so the client can drop the move
+         * it already made on its own copy and catch up with the server.
+         */
+        void move(Connection connection, int cell) {
+            if (game.getCurrentPlayer() != connection.player || !game.makeMove(cell)) {
+                frame.clear();
+                frame.put(Protocol.REJECTED);
+                Protocol.putU16(frame, cell);
+                connection.send(frame.flip());
+                connection.send(snapshot());
+                return;
+            }
+            playServerTurns();
+        }
+
+        /**
+         * Encodes the moves of the game in progress; too long for the scratch buffer, and rarely needed.
+         */
+        private ByteBuffer snapshot() {
+            int moveCount = game.getMoveCount();
+            ByteBuffer bytes = ByteBuffer.allocate(Protocol.SNAPSHOT_HEADER_LENGTH + 2 * moveCount);
+            bytes.put(Protocol.SNAPSHOT);
+            Protocol.putU16(bytes, moveCount);
+            for (int i = 0; i < moveCount; i++) {
+                Protocol.putU16(bytes, game.getHistoryMove(i));
+            }
+            return bytes.flip();
+        }
+
+        /**
+         * Starts a new game at a client's request.
+         */
+        void reset() {
+            generation++;
+            thinking = false;
+            game.reset();
+            playServerTurns();
+        }
+
+        /**
+         * Starts a search for the server-side AI's move if it is its turn.
+         * Clients' moves are rejected until the search is done, since it is not their turn.
+         */
+        private void playServerTurns() {
+            if (thinking || game.gameOver || game.getCurrentPlayer() instanceof RemotePlayer) return;
+
+            thinking = true;
+            int searched = generation;
+            Player player = game.getCurrentPlayer();
+            TicTacToeGame position = game.copy();
+            aiExecutor.execute(() -> {
+                Runnable result;
+                try {
+                    int move = GameMetrics.chooseMove(player, position);
+                    result = () -> serverMoved(searched, move);
+                } catch (RuntimeException e) {
+                    result = () -> disconnect(first);
+                }
+                aiResults.add(result);
+                selector.wakeup();
+            });
+        }
+
+        /**
+         * Applies a finished AI search on the selector thread, unless the game has moved on.
+         */
+        private void serverMoved(int searched, int move) {
+            if (searched != generation || first.closed) return;
+
+            thinking = false;
+            if (!game.makeMove(move)) {
+                // The AI is broken for this game; end it rather than leave the client waiting
+                disconnect(first);
+                return;
+            }
+            playServerTurns();
+        }
+
+        /**
+         * Sends the frame in the scratch buffer to every client in this match.
+         */
+        private void broadcast() {
+            frame.flip();
+            first.send(frame);
+            if (second != null) second.send(frame);
+        }
+
+        @Override
+        public void onMoveMade(int row, int col, Symbol symbol) {
+            frame.clear();
+            frame.put(Protocol.MOVE_MADE);
+            Protocol.putU16(frame, game.geometry.index(row, col));
+            Protocol.putSymbol(frame, symbol);
+            broadcast();
+        }
+
+        @Override
+        public void onGameOver(Player winner) {
+            frame.clear();
+            frame.put(Protocol.GAME_OVER);
+            Protocol.putSymbol(frame, (winner == null) ? Symbol.EMPTY : winner.symbol);
+            broadcast();
+        }
+
+        @Override
+        public void onTurnChanged(Player currentPlayer) {
+            frame.clear();
+            frame.put(Protocol.TURN);
+            Protocol.putSymbol(frame, currentPlayer.symbol);
+            broadcast();
+        }
+
+        @Override
+        public void onGameReset() {
+            frame.clear();
+            frame.put(Protocol.GAME_RESET);
+            broadcast();
+        }
+
+    }
+
+    /**
+     * One client connection with its input and output buffers.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+        private ByteBuffer out = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        private SelectionKey key;
+
+        /** The game this client is in and the player it controls, once seated */
+        private Match match;
+        private Player player;
+
+        /** Whether this connection is already in the dirty queue */
+        private boolean queued;
+        private boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Seats this client in a match and tells it its symbol and the board shape.
+         */
+        void join(Match match, Player player) {
+            this.match = match;
+            this.player = player;
+
+            frame.clear();
+            frame.put(Protocol.WELCOME);
+            Protocol.putSymbol(frame, player.symbol);
+            Protocol.putU16(frame, geometry.rows);
+            Protocol.putU16(frame, geometry.cols);
+            Protocol.putU16(frame, geometry.winLength);
+            send(frame.flip());
+        }
+
+        /**
+         * Reads available input and handles every complete frame.
+         */
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Connection closed by client");
+            }
+
+            in.flip();
+            while (in.hasRemaining()) {
+                byte type = in.get(in.position());
+                int length = Protocol.frameLength(type);
+                if (length < 0) {
+                    throw new IOException("Unknown frame type " + type);
+                }
+                if (in.remaining() < length) break;
+
+                in.get();
+                switch (type) {
+                    case Protocol.MOVE -> {
+                        int cell = Protocol.getU16(in);
+                        if (match != null) match.move(this, cell);
+                    }
+                    case Protocol.RESET -> {
+                        if (match != null) match.reset();
+                    }
+                    default -> throw new IOException("Unexpected frame type " + type);
+                }
+            }
+            in.compact();
+        }
+
+        /**
+         * Buffers a frame for this client; it is written at the end of the current batch.
+         * The frame's position is left untouched so it can be sent to other clients too.
+         * A client that has stopped reading is disconnected once too much output is waiting for it.
+         */
+        void send(ByteBuffer data) {
+            if (closed) return;
+            if (out.position() + data.remaining() > MAX_PENDING_OUTPUT) {
+                disconnect(this);
+                return;
+            }
+            if (out.remaining() < data.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(MAX_PENDING_OUTPUT,
+                        Math.max(out.capacity() * 2, out.position() + data.remaining())));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+            out.put(data.duplicate());
+
+            if (!queued) {
+                queued = true;
+                dirty.add(this);
+            }
+        }
+
+        /**
+         * Writes as much buffered output as the socket accepts, waiting for OP_WRITE if some is left.
+         */
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+    }
+
+    /**
+     * Runs a server from the command line.
+     * Arguments: {@code [port] [opponentType] [rows cols winLength]}; without an opponent type,
+     * clients are paired with each other. Set {@code -Dtictactoe.log=<file>} to record every game.
+     * Metrics are published over JMX while the server runs.
+     *
+     * @param args The command line arguments
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7777;
+        PlayerType opponent = (args.length > 1) ? PlayerType.valueOf(args[1]) : null;
+        BoardGeometry geometry = (args.length > 4)
+                ? BoardGeometry.of(Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]))
+                : BoardGeometry.STANDARD;
+
+        GameServer server = new GameServer(port, geometry, opponent);
+        new JmxExporter().export(MetricsRegistry.shared());
+        String logPath = System.getProperty("tictactoe.log");
+        if (logPath != null) {
+            GameLogWriter log = GameLogWriter.open(Path.of(logPath), geometry);
+            server.recordTo(log);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    log.close();
+                } catch (IOException ignored) {
+                    // Exiting anyway
+                }
+            }));
+        }
+        System.out.println("Serving " + geometry + " on port " + server.getPort()
+                + ((opponent == null) ? ", pairing clients" : ", against " + opponent));
+        server.run();
+    }
+
+}
@@ -0,0 +1,161 @@
+package me.josh.tictactoe.net;
+
+import me.josh.tictactoe.model.Symbol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary wire format shared by {@link GameServer} and {@link GameClient}.<br>
+ * Every frame starts with a one-byte type. All frames but SNAPSHOT have a fixed length determined
+ * by that type, so they need no length prefix; a SNAPSHOT gives its move count right after the type.
+ * Multi-byte fields are big-endian; cells are sent as unsigned 16-bit cell indices and symbols as
+ * one byte ({@link Symbol#ordinal()}).
+ * <pre>
+ * Client to server:
+ *   MOVE       [type][cell:u16]                           3 bytes
+ *   RESET      [type]                                     1 byte
+ * Server to client:
+ *   WELCOME    [type][symbol][rows:u16][cols:u16][k:u16]  8 bytes
+ *   MOVE_MADE  [type][cell:u16][symbol]                   4 bytes
+ *   TURN       [type][symbol]                             2 bytes
+ *   GAME_OVER  [type][winner symbol, EMPTY for a draw]    2 bytes
+ *   GAME_RESET [type]                                     1 byte
+ *   REJECTED   [type][cell:u16]                           3 bytes, then a SNAPSHOT
+ *   MOVE_UNDONE [type][cell:u16][symbol]                  4 bytes
+ *   SNAPSHOT   (see below)
+ * Server to spectator (see {@link SpectatorServer}):
+ *   WATCHING   [type][first symbol][rows:u16][cols:u16][k:u16]  8 bytes
+ *   SNAPSHOT   [type][count:u16][cell:u16 x count]        3 + 2 * count bytes
+ *   then MOVE_MADE, MOVE_UNDONE, TURN, GAME_OVER and GAME_RESET as above
+ * </pre>
+ * A snapshot lists the moves of the game in progress in the order they were played, starting
+ * with the first symbol; replaying them gives the board, the turn and any result.
+ */
+public final class Protocol {
+
+    /** Client asks to play a cell */
+    public static final byte MOVE = 0x01;
+
+    /** Client asks to start a new game */
+    public static final byte RESET = 0x02;
+
+    /** Server assigns the client its symbol and describes the board */
+    public static final byte WELCOME = 0x10;
+
+    /** Server reports a move (mirrors {@code GameObserver.onMoveMade}) */
+    public static final byte MOVE_MADE = 0x11;
+
+    /** Server reports whose turn it is (mirrors {@code GameObserver.onTurnChanged}) */
+    public static final byte TURN = 0x12;
+
+    /** Server reports the end of the game (mirrors {@code GameObserver.onGameOver}) */
+    public static final byte GAME_OVER = 0x13;
+
+    /** Server reports a reset (mirrors {@code GameObserver.onGameReset}) */
+    public static final byte GAME_RESET = 0x14;
+
+    /** Server refuses a move that is not legal or not the client's turn; a SNAPSHOT to resync follows */
+    public static final byte REJECTED = 0x15;
+
+    /** Server reports a move taken back (mirrors {@code GameObserver.onMoveUndone}) */
+    public static final byte MOVE_UNDONE = 0x16;
+
+    /** Server welcomes a spectator, giving the symbol that moves first and the board */
+    public static final byte WATCHING = 0x17;
+
+    /** Server sends a spectator the moves of the game in progress */
+    public static final byte SNAPSHOT = 0x18;
+
+    /** Length of a snapshot frame before its moves, in bytes */
+    public static final int SNAPSHOT_HEADER_LENGTH = 3;
+
+    /** Length of the longest fixed-length frame, in bytes */
+    public static final int MAX_FRAME_LENGTH = 8;
+
+    /** Symbols indexed by their wire code */
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    private Protocol() {
+    }
+
+    /**
+     * Gets the total length of a fixed-length frame of the given type, including the type byte.
+     *
+     * @param type The frame type
+     * @return The frame length in bytes, or -1 for an unknown or variable-length type
+     */
+    public static int frameLength(byte type) {
+        return switch (type) {
+            case RESET, GAME_RESET -> 1;
+            case TURN, GAME_OVER -> 2;
+            case MOVE, REJECTED -> 3;
+            case MOVE_MADE, MOVE_UNDONE -> 4;
+            case WELCOME, WATCHING -> 8;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Gets the total length of the frame starting at the buffer's position, of any type.
+     * The buffer's position is not changed.
+     *
+     * @param buffer The buffer holding at least the frame's type byte
+     * @return The frame length in bytes, 0 if more bytes are needed to tell, or -1 for an unknown type
+     */
+    public static int frameLength(ByteBuffer buffer) {
+        byte type = buffer.get(buffer.position());
+        if (type != SNAPSHOT) {
+            return frameLength(type);
+        }
+        if (buffer.remaining() < SNAPSHOT_HEADER_LENGTH) {
+            return 0;
+        }
+        return SNAPSHOT_HEADER_LENGTH + 2 * (buffer.getShort(buffer.position() + 1) & 0xFFFF);
+    }
+
+    /**
+     * Writes a symbol as its one-byte code.
+     *
+     * @param buffer The buffer to write to
+     * @param symbol The symbol
+     */
+    public static void putSymbol(ByteBuffer buffer, Symbol symbol) {
+        buffer.put((byte) symbol.ordinal());
+    }
+
+    /**
+     * Reads a symbol from its one-byte code.
+     *
+     * @param buffer The buffer to read from
+     * @return The symbol
+     * @throws IllegalArgumentException if the code is not a symbol
+     */
+    public static Symbol getSymbol(ByteBuffer buffer) {
+        int code = buffer.get();
+        if (code < 0 || code >= SYMBOLS.length) {
+            throw new IllegalArgumentException("Bad symbol code " + code);
+        }
+        return SYMBOLS[code];
+    }
+
+    /**
+     * Writes an unsigned 16-bit value, such as a cell index.
+     *
+     * @param buffer The buffer to write to
+     * @param value The value (0-65535)
+     */
+    public static void putU16(ByteBuffer buffer, int value) {
+        buffer.putShort((short) value);
+    }
+
+    /**
+     * Reads an unsigned 16-bit value, such as a cell index.
+     *
+     * @param buffer The buffer to read from
+     * @return The value (0-65535)
+     */
+    public static int getU16(ByteBuffer buffer) {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+}
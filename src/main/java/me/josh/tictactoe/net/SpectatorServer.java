@@ -0,0 +1,487 @@
+package me.josh.tictactoe.net;
+
+import me.josh.tictactoe.metrics.GameMetrics;
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameObserver;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerFactory;
+import me.josh.tictactoe.model.player.PlayerType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams one game to any number of read-only spectators over the {@link Protocol} wire format.<br>
+ * Each game event is encoded once, on the game's thread, into a shared journal of fixed-size
+ * chunks. Every spectator only keeps its position in the journal, and its socket is written
+ * straight from the shared bytes, so an event costs one encoding however many people watch,
+ * and a spectator that falls behind catches up with a single write of everything it missed.<br>
+ * A spectator joining mid-game gets a {@link Protocol#WATCHING} frame and a
+ * {@link Protocol#SNAPSHOT} of the moves so far, then the live events from the point the
+ * snapshot was taken. The snapshot is encoded once per position and shared by everyone
+ * who joins before the next move.<br>
+ * Spectators more than 64 chunks (4 MB) behind are disconnected, so a stalled
+ * viewer cannot make the server hold on to the journal forever.
+ * Spectators can watch with {@link GameClient#watch}.
+ */
+public class SpectatorServer implements Closeable, GameObserver {
+
+    /** Size of each journal chunk in bytes */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /** Chunks a spectator may fall behind before it is dropped */
+    private static final int MAX_LAG_CHUNKS = 64;
+
+    private final BoardGeometry geometry;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+
+    /** The WATCHING frame every spectator gets first, shared read-only */
+    private final ByteBuffer welcome;
+
+    /** Spectators, touched only by the selector thread */
+    private final List<Spectator> spectators = new ArrayList<>();
+
+    /** Set when events were appended since the selector last looked */
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /** Moves of the game in progress, for snapshots; guarded by this */
+    private final int[] moves;
+    private int moveCount;
+
+    /** The chunk events are appended to; written under this */
+    private volatile Chunk tail = new Chunk(0);
+
+    /** The snapshot of the current position with its journal position, or null until asked for; guarded by this */
+    private Snapshot snapshot;
+
+    /** Scratch space for encoding one frame; guarded by this */
+    private final ByteBuffer frame = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a server streaming a game, and starts listening for spectators.
+     * Must be called on the thread that plays the game; events are then picked up from that thread.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param game The game to stream
+     * @throws IOException if the port cannot be bound
+     */
+    public SpectatorServer(int port, TicTacToeGame game) throws IOException {
+        this.geometry = game.geometry;
+        this.moves = new int[geometry.cells];
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        ByteBuffer hello = ByteBuffer.allocate(Protocol.frameLength(Protocol.WATCHING));
+        hello.put(Protocol.WATCHING);
+        Protocol.putSymbol(hello, game.player1.symbol);
+        Protocol.putU16(hello, geometry.rows);
+        Protocol.putU16(hello, geometry.cols);
+        Protocol.putU16(hello, geometry.winLength);
+        this.welcome = hello.flip().asReadOnlyBuffer();
+
+        // Start from the game as it stands
+        for (int ply = 0; ply < game.getMoveCount(); ply++) {
+            moves[moveCount++] = game.getHistoryMove(ply);
+        }
+        game.observers.add(this);
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The bound port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of connected spectators. Only exact on the server thread.
+     *
+     * @return The spectator count
+     */
+    public int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    /**
+     * Runs the server on a new daemon thread.
+     *
+     * @return The server thread
+     */
+    public Thread start() {
+        Thread thread = new Thread(this::run, "spectator-server-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Runs the event loop on the calling thread until the server is closed.
+     */
+    public void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                pending.set(false);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+
+                // Push new events to everyone not already waiting on a full socket
+                for (int i = spectators.size() - 1; i >= 0; i--) {
+                    Spectator spectator = spectators.get(i);
+                    if (!spectator.blocked) pump(spectator);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) throw new IllegalStateException("Spectator selector failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                    // Shutting down anyway
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+    }
+
+    /**
+     * Stops the server and disconnects every spectator.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Dispatches one ready key.
+     */
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        Spectator spectator = (Spectator) key.attachment();
+        try {
+            if (key.isReadable()) {
+                // Spectators have nothing to say; reading only notices when they leave
+                spectator.discard.clear();
+                if (spectator.channel.read(spectator.discard) < 0) {
+                    drop(spectator);
+                    return;
+                }
+            }
+            if (key.isValid() && key.isWritable()) {
+                spectator.blocked = false;
+                pump(spectator);
+            }
+        } catch (IOException e) {
+            drop(spectator);
+        }
+    }
+
+    /**
+     * Accepts pending spectators and gives each one the current snapshot.
+     */
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+                Snapshot current = currentSnapshot();
+                Spectator spectator = new Spectator(channel, current);
+                spectator.key = channel.register(selector, SelectionKey.OP_READ, spectator);
+                spectators.add(spectator);
+                pump(spectator);
+            }
+        } catch (IOException e) {
+            // A failed accept only affects that spectator
+        }
+    }
+
+    /**
+     * Writes everything a spectator has not had yet, as far as its socket takes it.
+     */
+    private void pump(Spectator spectator) {
+        try {
+            if (spectator.intro != null) {
+                spectator.channel.write(spectator.intro);
+                if (spectator.intro[1].hasRemaining()) {
+                    block(spectator);
+                    return;
+                }
+                spectator.intro = null;
+            }
+
+            while (true) {
+                Chunk chunk = spectator.chunk;
+                int end = chunk.length;
+                if (spectator.position < end) {
+                    ByteBuffer view = spectator.view;
+                    view.limit(end).position(spectator.position);
+                    spectator.channel.write(view);
+                    spectator.position = view.position();
+                    if (spectator.position < end) {
+                        block(spectator);
+                        return;
+                    }
+                }
+
+                // Move on once this chunk is sealed and fully sent; its length is final once next is set
+                Chunk next = chunk.next;
+                if (spectator.position < chunk.length) {
+                    continue;
+                }
+                if (next == null) {
+                    break;
+                }
+                spectator.moveTo(next);
+            }
+
+            if (tailSequence() - spectator.chunk.sequence > MAX_LAG_CHUNKS) {
+                drop(spectator);
+                return;
+            }
+            spectator.key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            drop(spectator);
+        }
+    }
+
+    /**
+     * Waits for a spectator's socket to drain before writing more.
+     */
+    private void block(Spectator spectator) {
+        if (tailSequence() - spectator.chunk.sequence > MAX_LAG_CHUNKS) {
+            drop(spectator);
+            return;
+        }
+        spectator.blocked = true;
+        spectator.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void drop(Spectator spectator) {
+        spectator.key.cancel();
+        try {
+            spectator.channel.close();
+        } catch (IOException ignored) {
+            // Already closing
+        }
+        spectators.remove(spectator);
+    }
+
+    private long tailSequence() {
+        return tail.sequence;
+    }
+
+    /**
+     * Gets the snapshot of the current position, encoding it if no one has asked since the last event.
+     */
+    private synchronized Snapshot currentSnapshot() {
+        if (snapshot == null) {
+            ByteBuffer bytes = ByteBuffer.allocate(Protocol.SNAPSHOT_HEADER_LENGTH + 2 * moveCount);
+            bytes.put(Protocol.SNAPSHOT);
+            Protocol.putU16(bytes, moveCount);
+            for (int i = 0; i < moveCount; i++) {
+                Protocol.putU16(bytes, moves[i]);
+            }
+            snapshot = new Snapshot(bytes.flip().asReadOnlyBuffer(), tail, tail.length);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Appends the frame in the scratch buffer to the journal and wakes the selector if it is idle.
+     */
+    private void append() {
+        frame.flip();
+        int length = frame.remaining();
+        Chunk chunk = tail;
+        if (chunk.length + length > CHUNK_SIZE) {
+            Chunk next = new Chunk(chunk.sequence + 1);
+            chunk.next = next;
+            tail = next;
+            chunk = next;
+        }
+        frame.get(chunk.data, chunk.length, length);
+        chunk.length += length;
+        snapshot = null;
+
+        if (!pending.get() && pending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public synchronized void onMoveMade(int row, int col, Symbol symbol) {
+        int cell = geometry.index(row, col);
+        moves[moveCount++] = cell;
+        frame.clear();
+        frame.put(Protocol.MOVE_MADE);
+        Protocol.putU16(frame, cell);
+        Protocol.putSymbol(frame, symbol);
+        append();
+    }
+
+    @Override
+    public synchronized void onMoveUndone(int row, int col, Symbol symbol) {
+        moveCount--;
+        frame.clear();
+        frame.put(Protocol.MOVE_UNDONE);
+        Protocol.putU16(frame, geometry.index(row, col));
+        Protocol.putSymbol(frame, symbol);
+        append();
+    }
+
+    @Override
+    public synchronized void onGameOver(Player winner) {
+        frame.clear();
+        frame.put(Protocol.GAME_OVER);
+        Protocol.putSymbol(frame, (winner == null) ? Symbol.EMPTY : winner.symbol);
+        append();
+    }
+
+    @Override
+    public synchronized void onTurnChanged(Player currentPlayer) {
+        frame.clear();
+        frame.put(Protocol.TURN);
+        Protocol.putSymbol(frame, currentPlayer.symbol);
+        append();
+    }
+
+    @Override
+    public synchronized void onGameReset() {
+        moveCount = 0;
+        frame.clear();
+        frame.put(Protocol.GAME_RESET);
+        append();
+    }
+
+    /**
+     * A block of the journal. Its bytes are written once, by the game's thread, before its
+     * length is raised; after {@code next} is set it never changes again.
+     */
+    private static final class Chunk {
+
+        final long sequence;
+        final byte[] data = new byte[CHUNK_SIZE];
+        volatile int length;
+        volatile Chunk next;
+
+        Chunk(long sequence) {
+            this.sequence = sequence;
+        }
+
+    }
+
+    /**
+     * An encoded snapshot and the journal position right after it.
+     */
+    private record Snapshot(ByteBuffer bytes, Chunk chunk, int position) {
+    }
+
+    /**
+     * One spectator: its socket and how far into the journal it has been sent.
+     */
+    private final class Spectator {
+
+        private final SocketChannel channel;
+        private final ByteBuffer discard = ByteBuffer.allocate(64);
+        private SelectionKey key;
+
+        /** The welcome and snapshot still to send, or null once sent */
+        private ByteBuffer[] intro;
+
+        /** The journal chunk being sent, a view of its bytes, and the next byte to send */
+        private Chunk chunk;
+        private ByteBuffer view;
+        private int position;
+
+        /** Whether the socket is full and OP_WRITE is awaited */
+        private boolean blocked;
+
+        Spectator(SocketChannel channel, Snapshot snapshot) {
+            this.channel = channel;
+            this.intro = new ByteBuffer[]{welcome.duplicate(), snapshot.bytes().duplicate()};
+            moveTo(snapshot.chunk());
+            this.position = snapshot.position();
+        }
+
+        void moveTo(Chunk next) {
+            chunk = next;
+            view = ByteBuffer.wrap(next.data);
+            position = 0;
+        }
+
+    }
+
+    /**
+     * Streams endless games between two AI players from the command line, e.g. for a demo tournament.
+     * Arguments: {@code [port] [player1Type] [player2Type] [delayMillis] [rows cols winLength]}.
+     *
+     * @param args The command line arguments
+     * @throws IOException if the port cannot be bound
+     * @throws InterruptedException if interrupted while pausing between moves
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7778;
+        PlayerType type1 = (args.length > 1) ? PlayerType.valueOf(args[1]) : PlayerType.NEGAMAX;
+        PlayerType type2 = (args.length > 2) ? PlayerType.valueOf(args[2]) : PlayerType.COMPUTER;
+        long delayMillis = (args.length > 3) ? Long.parseLong(args[3]) : 500;
+        BoardGeometry geometry = (args.length > 6)
+                ? BoardGeometry.of(Integer.parseInt(args[4]), Integer.parseInt(args[5]), Integer.parseInt(args[6]))
+                : BoardGeometry.STANDARD;
+
+        TicTacToeGame game = new TicTacToeGame(PlayerFactory.createPlayer(type1, Symbol.X, type1.name()),
+                PlayerFactory.createPlayer(type2, Symbol.O, type2.name()), geometry);
+        SpectatorServer server = new SpectatorServer(port, game);
+        server.start();
+        System.out.println("Streaming " + type1 + " vs " + type2 + " on " + geometry + " on port " + server.getPort());
+
+        while (true) {
+            while (!game.gameOver) {
+                Thread.sleep(delayMillis);
+                game.makeMove(GameMetrics.chooseMove(game.getCurrentPlayer(), game));
+            }
+            Thread.sleep(delayMillis * 4);
+            game.reset();
+        }
+    }
+
+}
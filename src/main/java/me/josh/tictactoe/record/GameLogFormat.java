@@ -0,0 +1,158 @@
+package me.josh.tictactoe.record;
+
+import me.josh.tictactoe.model.BoardGeometry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary layout of a game log: a fixed header followed by fixed-length game records,
+ * all little-endian.<br>
+ * Header ({@link #HEADER_LENGTH} bytes): magic "TTTL", version (u8), unused (u8), rows (u16),
+ * cols (u16), winLength (u16), record length (u16), unused (u16).<br>
+ * Record ({@link #recordLength} bytes): move count (u16), result (u8: outcome in bits 0-1,
+ * bit 2 set if player 1 plays O), player types (u8: player 1 in the low nibble, player 2 in
+ * the high nibble, as {@code PlayerType} ordinals), then the moves in order as cell indexes
+ * of {@link #bitsPerMove} bits each, packed from the lowest bit up and padded to a multiple
+ * of 8 bytes. A classic 3x3 game fits in 16 bytes.
+ */
+public final class GameLogFormat {
+
+    /** "TTTL" read as a little-endian int */
+    public static final int MAGIC = 0x4C545454;
+
+    /** Current format version */
+    public static final int VERSION = 1;
+
+    /** Bytes before the first record */
+    public static final int HEADER_LENGTH = 16;
+
+    /** Bytes of each record before the packed moves */
+    public static final int RECORD_PREFIX = 4;
+
+    /** Outcome codes */
+    public static final int DRAW = 0;
+    public static final int PLAYER1_WINS = 1;
+    public static final int PLAYER2_WINS = 2;
+
+    /** Result bit set when player 1 plays O */
+    public static final int PLAYER1_IS_O = 1 << 2;
+
+    private GameLogFormat() {
+    }
+
+    /**
+     * Gets the number of bits used to store one move on a board.
+     *
+     * @param geometry The board shape
+     * @return Enough bits for any cell index
+     */
+    public static int bitsPerMove(BoardGeometry geometry) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(geometry.cells - 1));
+    }
+
+    /**
+     * Gets the length of each record on a board.
+     *
+     * @param geometry The board shape
+     * @return The record length in bytes, a multiple of 8
+     */
+    public static int recordLength(BoardGeometry geometry) {
+        long bytes = RECORD_PREFIX + ((long) geometry.cells * bitsPerMove(geometry) + 7) / 8;
+        long length = (bytes + 7) & ~7L;
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("Board too large to record: " + geometry);
+        }
+        return (int) length;
+    }
+
+    /**
+     * Writes the file header.
+     *
+     * @param buffer A little-endian buffer with at least {@link #HEADER_LENGTH} bytes remaining
+     * @param geometry The board shape of every game in the file
+     */
+    static void putHeader(ByteBuffer buffer, BoardGeometry geometry) {
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) 0);
+        buffer.putShort((short) geometry.rows);
+        buffer.putShort((short) geometry.cols);
+        buffer.putShort((short) geometry.winLength);
+        buffer.putShort((short) recordLength(geometry));
+        buffer.putShort((short) 0);
+    }
+
+    /**
+     * Reads and checks the file header.
+     *
+     * @param buffer A buffer positioned at the start of the file
+     * @return The board shape of every game in the file
+     * @throws IOException if the header is not a valid game log header
+     */
+    static BoardGeometry getHeader(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a game log");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported game log version " + version);
+        }
+        buffer.get();
+
+        BoardGeometry geometry;
+        try {
+            geometry = BoardGeometry.of(buffer.getShort() & 0xFFFF, buffer.getShort() & 0xFFFF,
+                    buffer.getShort() & 0xFFFF);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt game log header", e);
+        }
+        if ((buffer.getShort() & 0xFFFF) != recordLength(geometry)) {
+            throw new IOException("Corrupt game log header: wrong record length");
+        }
+        buffer.getShort();
+        return geometry;
+    }
+
+    /**
+     * Packs one game into a record at the buffer's position.
+     *
+     * @param buffer A little-endian buffer with a whole record remaining
+     * @param recordLength The record length for the board
+     * @param bitsPerMove The bits per move for the board
+     * @param result The outcome code, plus {@link #PLAYER1_IS_O} if applicable
+     * @param players The packed player types
+     * @param moves The moves as cell indexes
+     * @param count The number of moves
+     */
+    static void putRecord(ByteBuffer buffer, int recordLength, int bitsPerMove, int result, int players,
+                          int[] moves, int count) {
+        int start = buffer.position();
+        buffer.putShort((short) count);
+        buffer.put((byte) result);
+        buffer.put((byte) players);
+
+        long pending = 0;
+        int pendingBits = 0;
+        for (int i = 0; i < count; i++) {
+            pending |= (long) moves[i] << pendingBits;
+            pendingBits += bitsPerMove;
+            while (pendingBits >= 8) {
+                buffer.put((byte) pending);
+                pending >>>= 8;
+                pendingBits -= 8;
+            }
+        }
+        if (pendingBits > 0) {
+            buffer.put((byte) pending);
+        }
+
+        // Zero the padding so records are deterministic
+        while (buffer.position() < start + recordLength) {
+            buffer.put((byte) 0);
+        }
+    }
+
+}
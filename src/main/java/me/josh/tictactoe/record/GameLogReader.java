@@ -0,0 +1,190 @@
+package me.josh.tictactoe.record;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.player.PlayerType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped view of a game log in the {@link GameLogFormat} layout.<br>
+ * Records are decoded straight from the mapped file by index, so scanning millions of games
+ * allocates nothing and the operating system pages data in as needed. Files larger than
+ * 2 GB are mapped in several segments of whole records. The view covers the records present
+ * when the log was opened; a partial record at the end (from a writer still running or a crash)
+ * is ignored. Instances are safe to read from many threads at once.
+ */
+public class GameLogReader {
+
+    /** Player types by ordinal */
+    private static final PlayerType[] TYPES = PlayerType.values();
+
+    private final BoardGeometry geometry;
+    private final int recordLength;
+    private final int bitsPerMove;
+    private final long size;
+
+    /** Records per mapped segment */
+    private final int segmentRecords;
+    private final MappedByteBuffer[] segments;
+
+    private GameLogReader(BoardGeometry geometry, long size, MappedByteBuffer[] segments, int segmentRecords) {
+        this.geometry = geometry;
+        this.recordLength = GameLogFormat.recordLength(geometry);
+        this.bitsPerMove = GameLogFormat.bitsPerMove(geometry);
+        this.size = size;
+        this.segments = segments;
+        this.segmentRecords = segmentRecords;
+    }
+
+    /**
+     * Maps a game log.
+     *
+     * @param path The log file
+     * @return The reader
+     * @throws IOException if the file cannot be read or is not a game log
+     */
+    public static GameLogReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(GameLogFormat.HEADER_LENGTH);
+            channel.read(header, 0);
+            header.flip();
+            BoardGeometry geometry = GameLogFormat.getHeader(header);
+
+            int recordLength = GameLogFormat.recordLength(geometry);
+            long size = (channel.size() - GameLogFormat.HEADER_LENGTH) / recordLength;
+            int segmentRecords = Integer.MAX_VALUE / recordLength;
+            int segmentCount = (int) ((size + segmentRecords - 1) / segmentRecords);
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i * segmentRecords;
+                long records = Math.min(segmentRecords, size - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        GameLogFormat.HEADER_LENGTH + first * recordLength, records * recordLength);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new GameLogReader(geometry, size, segments, segmentRecords);
+        }
+    }
+
+    /**
+     * Gets the board shape of every game in the log.
+     *
+     * @return The geometry
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Gets the number of games in the log.
+     *
+     * @return The record count
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of moves in a game.
+     *
+     * @param game The record index
+     * @return The move count
+     */
+    public int moveCount(long game) {
+        return segment(game).getShort(offset(game)) & 0xFFFF;
+    }
+
+    /**
+     * Gets how a game ended.
+     *
+     * @param game The record index
+     * @return {@link GameLogFormat#DRAW}, {@link GameLogFormat#PLAYER1_WINS} or {@link GameLogFormat#PLAYER2_WINS}
+     */
+    public int outcome(long game) {
+        return segment(game).get(offset(game) + 2) & 0x3;
+    }
+
+    /**
+     * Gets the symbol of the player who moved first.
+     *
+     * @param game The record index
+     * @return X or O
+     */
+    public Symbol player1Symbol(long game) {
+        return ((segment(game).get(offset(game) + 2) & GameLogFormat.PLAYER1_IS_O) != 0) ? Symbol.O : Symbol.X;
+    }
+
+    /**
+     * Gets the type of the player who moved first.
+     *
+     * @param game The record index
+     * @return The player type
+     */
+    public PlayerType player1Type(long game) {
+        return TYPES[segment(game).get(offset(game) + 3) & 0xF];
+    }
+
+    /**
+     * Gets the type of the player who moved second.
+     *
+     * @param game The record index
+     * @return The player type
+     */
+    public PlayerType player2Type(long game) {
+        return TYPES[(segment(game).get(offset(game) + 3) >>> 4) & 0xF];
+    }
+
+    /**
+     * Gets one move of a game.
+     *
+     * @param game The record index
+     * @param ply The move number, starting at 0
+     * @return The cell index of the move
+     */
+    public int move(long game, int ply) {
+        ByteBuffer segment = segment(game);
+        int bit = ply * bitsPerMove;
+        int at = offset(game) + GameLogFormat.RECORD_PREFIX + (bit >>> 3);
+        int end = offset(game) + recordLength;
+
+        // A move spans at most three bytes
+        int word = 0;
+        for (int i = 0; i < 3 && at + i < end; i++) {
+            word |= (segment.get(at + i) & 0xFF) << (8 * i);
+        }
+        return (word >>> (bit & 7)) & ((1 << bitsPerMove) - 1);
+    }
+
+    /**
+     * Copies every move of a game.
+     *
+     * @param game The record index
+     * @param into An array of at least {@code geometry.cells} ints
+     * @return The number of moves copied
+     */
+    public int moves(long game, int[] into) {
+        int count = moveCount(game);
+        for (int ply = 0; ply < count; ply++) {
+            into[ply] = move(game, ply);
+        }
+        return count;
+    }
+
+    private ByteBuffer segment(long game) {
+        if (game < 0 || game >= size) throw new IndexOutOfBoundsException("Game " + game + " of " + size);
+        return segments[(int) (game / segmentRecords)];
+    }
+
+    private int offset(long game) {
+        return (int) (game % segmentRecords) * recordLength;
+    }
+
+}
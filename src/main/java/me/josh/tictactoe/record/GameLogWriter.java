@@ -0,0 +1,231 @@
+package me.josh.tictactoe.record;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.player.PlayerType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends game records to a log file in the {@link GameLogFormat} layout.<br>
+ * Records are packed into a buffer under a short lock; full buffers are written by a
+ * background thread while games keep filling a second buffer, so the threads finishing
+ * games never wait for the disk unless it falls a whole buffer behind.
+ * Safe to share between any number of games and threads.
+ */
+public class GameLogWriter implements Closeable {
+
+    /** Size of each write buffer */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final BoardGeometry geometry;
+    private final int recordLength;
+    private final int bitsPerMove;
+
+    /** Writes full buffers in order */
+    private final ExecutorService io;
+
+    /** The buffer not being filled, once the writer thread is done with it */
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(1);
+
+    /** The buffer being filled, guarded by this */
+    private ByteBuffer current;
+
+    /** Games appended since opening */
+    private long written;
+
+    /** The first write failure, reported by the next call */
+    private volatile IOException failure;
+
+    private boolean closed;
+
+    private GameLogWriter(FileChannel channel, BoardGeometry geometry) {
+        this.channel = channel;
+        this.geometry = geometry;
+        this.recordLength = GameLogFormat.recordLength(geometry);
+        this.bitsPerMove = GameLogFormat.bitsPerMove(geometry);
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Each buffer holds whole records only
+        int capacity = Math.max(1, BUFFER_SIZE / recordLength) * recordLength;
+        this.current = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        free.add(ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Opens a log for appending, creating it if needed.
+     * An existing log must be for the same board shape; a partial record left at its end
+     * by a crash is cut off.
+     *
+     * @param path The log file
+     * @param geometry The board shape of the games to record
+     * @return The writer
+     * @throws IOException if the file cannot be opened or is a log for another board shape
+     */
+    public static GameLogWriter open(Path path, BoardGeometry geometry) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(GameLogFormat.HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+                GameLogFormat.putHeader(header, geometry);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(GameLogFormat.HEADER_LENGTH);
+                channel.read(header, 0);
+                header.flip();
+                BoardGeometry existing = GameLogFormat.getHeader(header);
+                if (existing != geometry) {
+                    throw new IOException(path + " records " + existing + ", not " + geometry);
+                }
+
+                long records = (channel.size() - GameLogFormat.HEADER_LENGTH) / GameLogFormat.recordLength(geometry);
+                channel.truncate(GameLogFormat.HEADER_LENGTH + records * GameLogFormat.recordLength(geometry));
+            }
+            channel.position(channel.size());
+            return new GameLogWriter(channel, geometry);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the board shape this log records.
+     *
+     * @return The geometry
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Gets the number of games appended since the log was opened.
+     *
+     * @return The game count
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    /**
+     * Appends one finished game.
+     *
+     * @param player1 The type of the player who moved first
+     * @param player2 The type of the other player
+     * @param player1Symbol The symbol player 1 played
+     * @param outcome {@link GameLogFormat#DRAW}, {@link GameLogFormat#PLAYER1_WINS} or {@link GameLogFormat#PLAYER2_WINS}
+     * @param moves The moves as cell indexes, in order
+     * @param count The number of moves
+     * @throws UncheckedIOException if an earlier write failed
+     * @throws IllegalStateException if the log is closed
+     */
+    public synchronized void append(PlayerType player1, PlayerType player2, Symbol player1Symbol, int outcome,
+                                    int[] moves, int count) {
+        checkFailure();
+        if (closed) throw new IllegalStateException("Game log is closed");
+
+        int result = outcome | ((player1Symbol == Symbol.O) ? GameLogFormat.PLAYER1_IS_O : 0);
+        int players = player1.ordinal() | (player2.ordinal() << 4);
+        GameLogFormat.putRecord(current, recordLength, bitsPerMove, result, players, moves, count);
+        written++;
+
+        if (!current.hasRemaining()) {
+            submit();
+        }
+    }
+
+    /**
+     * Writes every appended game to the file.
+     *
+     * @throws IOException if a write fails
+     */
+    public synchronized void flush() throws IOException {
+        if (current.position() > 0) {
+            submit();
+        }
+
+        // Once the other buffer is back, every write has finished
+        free.add(takeFree());
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Flushes and closes the log.
+     *
+     * @throws IOException if the final writes fail
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        try {
+            flush();
+        } finally {
+            closed = true;
+            io.shutdown();
+            try {
+                io.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Hands the current buffer to the writer thread and switches to a free one.
+     * Waits only if the writer thread is still writing the other buffer.
+     */
+    private void submit() {
+        ByteBuffer full = current;
+        current = takeFree();
+        full.flip();
+        io.execute(() -> {
+            try {
+                while (full.hasRemaining()) {
+                    channel.write(full);
+                }
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            } finally {
+                full.clear();
+                free.add(full);
+            }
+        });
+    }
+
+    private ByteBuffer takeFree() {
+        try {
+            return free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the game log", e);
+        }
+    }
+
+    private void checkFailure() {
+        IOException e = failure;
+        if (e != null) throw new UncheckedIOException("Game log write failed", e);
+    }
+
+}
@@ -0,0 +1,67 @@
+package me.josh.tictactoe.record;
+
+import me.josh.tictactoe.model.GameObserver;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerType;
+
+/**
+ * Observer that records every finished game of one {@link TicTacToeGame} to a {@link GameLogWriter}.
+ * Moves are kept in an int array while the game runs and appended as one record when it ends;
+ * games that are reset before they finish are not recorded.
+ */
+public class GameRecorder implements GameObserver {
+
+    private final GameLogWriter log;
+    private final TicTacToeGame game;
+
+    /** Moves of the current game as cell indexes */
+    private final int[] moves;
+    private int count;
+
+    /**
+     * Creates a recorder. Register it with {@code game.observers.add(recorder)},
+     * or {@code addAsync} to append from a background thread.
+     *
+     * @param log The log to append to
+     * @param game The game to record
+     * @throws IllegalArgumentException if the log is for another board shape
+     */
+    public GameRecorder(GameLogWriter log, TicTacToeGame game) {
+        if (log.getGeometry() != game.geometry) {
+            throw new IllegalArgumentException("Log records " + log.getGeometry() + ", game is " + game.geometry);
+        }
+        this.log = log;
+        this.game = game;
+        this.moves = new int[game.geometry.cells];
+    }
+
+    @Override
+    public void onMoveMade(int row, int col, Symbol symbol) {
+        moves[count++] = game.geometry.index(row, col);
+    }
+
+    @Override
+    public void onGameOver(Player winner) {
+        int outcome = (winner == null) ? GameLogFormat.DRAW
+                : (winner == game.player1) ? GameLogFormat.PLAYER1_WINS
+                : GameLogFormat.PLAYER2_WINS;
+        log.append(PlayerType.of(game.player1), PlayerType.of(game.player2), game.player1.symbol, outcome, moves, count);
+    }
+
+    @Override
+    public void onTurnChanged(Player currentPlayer) {
+    }
+
+    @Override
+    public void onMoveUndone(int row, int col, Symbol symbol) {
+        count--;
+    }
+
+    @Override
+    public void onGameReset() {
+        count = 0;
+    }
+
+}
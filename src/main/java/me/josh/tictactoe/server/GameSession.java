@@ -0,0 +1,170 @@
+package me.josh.tictactoe.server;
+
+import me.josh.tictactoe.metrics.GameMetrics;
+import me.josh.tictactoe.model.GameSnapshot;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.Player;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One hosted game, confined to its own mailbox.<br>
+ * Every action on the game is queued and run one at a time on a shared executor,
+ * so the game itself is never touched by two threads at once and needs no locks.
+ * Callers on any thread submit work and get a future for the result.
+ * After each submitted move, computer players reply automatically within the same task.
+ */
+public class GameSession {
+
+    /** Tasks run before yielding the executor thread to other sessions */
+    private static final int BATCH_SIZE = 64;
+
+    /** Unique id of this session */
+    public final long id;
+
+    /** The hosted game; only ever accessed from inside the mailbox */
+    private final TicTacToeGame game;
+
+    /** Pending actions, in submission order */
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+    /** Whether a drain of the mailbox is scheduled or running */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /** Runs mailbox drains */
+    private final Executor executor;
+
+    /**
+     * Creates a new session.
+     *
+     * @param id The session id
+     * @param game The game to host; must not be used elsewhere afterwards
+     * @param executor Runs the session's mailbox
+     */
+    GameSession(long id, TicTacToeGame game, Executor executor) {
+        this.id = id;
+        this.game = game;
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a move for the current player.
+     * If the move is accepted and a computer player is next, it replies before the future completes.
+     *
+     * @param row The row
+     * @param col The column
+     * @return A future completing with true if the move was valid and made
+     */
+    public CompletableFuture<Boolean> submitMove(int row, int col) {
+        return query(g -> {
+            if (!g.makeMove(row, col)) return false;
+            playComputerTurns(g);
+            return true;
+        });
+    }
+
+    /**
+     * Submits a move for the current player.
+     * If the move is accepted and a computer player is next, it replies before the future completes.
+     *
+     * @param index The cell index
+     * @return A future completing with true if the move was valid and made
+     */
+    public CompletableFuture<Boolean> submitMove(int index) {
+        return query(g -> {
+            if (!g.makeMove(index)) return false;
+            playComputerTurns(g);
+            return true;
+        });
+    }
+
+    /**
+     * Takes a {@link GameSnapshot} of the game between two of its moves.
+     * Only this session's mailbox is involved, so other games keep playing meanwhile.
+     *
+     * @return A future completing with the snapshot
+     */
+    public CompletableFuture<byte[]> snapshot() {
+        return query(GameSnapshot::save);
+    }
+
+    /**
+     * Runs an action on the game inside the mailbox, e.g. registering an observer or resetting.
+     *
+     * @param action The action to run
+     * @return A future completing once the action has run
+     */
+    public CompletableFuture<Void> execute(Consumer<? super TicTacToeGame> action) {
+        return query(g -> {
+            action.accept(g);
+            return null;
+        });
+    }
+
+    /**
+     * Reads or updates the game inside the mailbox and returns a result.
+     * The function must not keep a reference to the game.
+     *
+     * @param function The function to apply to the game
+     * @param <T> The result type
+     * @return A future completing with the function's result, or exceptionally if it throws
+     */
+    public <T> CompletableFuture<T> query(Function<? super TicTacToeGame, T> function) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                result.complete(function.apply(game));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Lets computer players move until a non-computer player is to move or the game ends.
+     */
+    static void playComputerTurns(TicTacToeGame game) {
+        while (!game.gameOver && game.isCurrentPlayerComputer()) {
+            Player computer = game.getCurrentPlayer();
+            if (!game.makeMove(GameMetrics.chooseMove(computer, game))) {
+                throw new IllegalStateException(computer + " made an invalid move");
+            }
+        }
+    }
+
+    /**
+     * Adds a task to the mailbox and makes sure a drain is scheduled.
+     */
+    private void enqueue(Runnable task) {
+        mailbox.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs queued tasks, yielding after a batch so busy sessions do not starve the others.
+     */
+    private void drain() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Runnable task = mailbox.poll();
+            if (task == null) break;
+            task.run();
+        }
+
+        scheduled.set(false);
+
+        // Reschedule if tasks remain or arrived after the last poll
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package me.josh.tictactoe.server;
+
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.GameSnapshot;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.Player;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many concurrent games, each in its own {@link GameSession}.<br>
+ * Sessions are looked up by id without locking, and all sessions share one
+ * work-stealing pool that runs their mailboxes, so thousands of mostly idle
+ * games cost no threads of their own.
+ */
+public class GameSessionManager {
+
+    /** Live sessions by id */
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+
+    /** Source of session ids */
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /** Runs the session mailboxes */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a manager that runs sessions on one thread per core.
+     */
+    public GameSessionManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a manager that runs sessions on the given number of threads.
+     *
+     * @param parallelism The number of worker threads
+     */
+    public GameSessionManager(int parallelism) {
+        // Async mode gives FIFO scheduling, which suits mailbox-style tasks
+        this.executor = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /**
+     * Starts hosting a new classic 3x3 game.
+     *
+     * @param player1 The first player (goes first)
+     * @param player2 The second player
+     * @return The new session
+     */
+    public GameSession create(Player player1, Player player2) {
+        return create(player1, player2, BoardGeometry.STANDARD);
+    }
+
+    /**
+     * Starts hosting a new game on the given board shape.
+     * If player 1 is a computer player, it makes its first move right away
+     * (and if both are, the whole game is played out).
+     *
+     * @param player1 The first player (goes first)
+     * @param player2 The second player
+     * @param geometry The board shape
+     * @return The new session
+     */
+    public GameSession create(Player player1, Player player2, BoardGeometry geometry) {
+        return host(new TicTacToeGame(player1, player2, geometry));
+    }
+
+    /**
+     * Resumes hosting a game from a {@link GameSnapshot}, e.g. one taken before a restart
+     * or on another server, with players of the stored types.
+     * If a computer player is to move, it moves right away.
+     *
+     * @param snapshot The snapshot
+     * @return The new session
+     * @throws IllegalArgumentException if the snapshot is malformed
+     */
+    public GameSession restore(byte[] snapshot) {
+        return host(GameSnapshot.restore(snapshot));
+    }
+
+    /**
+     * Resumes hosting a game from a {@link GameSnapshot} with the given players.
+     * If a computer player is to move, it moves right away.
+     *
+     * @param snapshot The snapshot
+     * @param player1 The first player; must play the symbol stored in the snapshot
+     * @param player2 The second player
+     * @return The new session
+     * @throws IllegalArgumentException if the snapshot is malformed or the symbols do not match
+     */
+    public GameSession restore(byte[] snapshot, Player player1, Player player2) {
+        return host(GameSnapshot.restore(snapshot, player1, player2));
+    }
+
+    /**
+     * Hosts a game in a new session.
+     */
+    private GameSession host(TicTacToeGame game) {
+        long id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, game, executor);
+        sessions.put(id, session);
+
+        // Let a computer player open the game or take its turn
+        session.execute(GameSession::playComputerTurns);
+        return session;
+    }
+
+    /**
+     * Looks up a session.
+     *
+     * @param id The session id
+     * @return The session, or null if there is no such session
+     */
+    public GameSession get(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Stops hosting a session. Tasks already queued on it still run.
+     *
+     * @param id The session id
+     * @return The removed session, or null if there was no such session
+     */
+    public GameSession remove(long id) {
+        return sessions.remove(id);
+    }
+
+    /**
+     * Gets the number of hosted sessions.
+     *
+     * @return The number of live sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops accepting work and waits for queued tasks to finish.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return true if all tasks finished within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+}
@@ -0,0 +1,204 @@
+package me.josh.tictactoe.sim;
+
+import me.josh.tictactoe.metrics.GameMetrics;
+import me.josh.tictactoe.metrics.MetricsRegistry;
+import me.josh.tictactoe.metrics.TextExporter;
+import me.josh.tictactoe.model.BoardGeometry;
+import me.josh.tictactoe.model.Symbol;
+import me.josh.tictactoe.model.TicTacToeGame;
+import me.josh.tictactoe.model.player.Player;
+import me.josh.tictactoe.model.player.PlayerFactory;
+import me.josh.tictactoe.model.player.PlayerType;
+import me.josh.tictactoe.record.GameLogWriter;
+import me.josh.tictactoe.record.GameRecorder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays batches of games between two players without any user interface.
+ * Games are split into chunks and played on a fork-join pool using every core.
+ * Each chunk builds its own players and game once and reuses them for all of its
+ * games, so nothing is shared between threads and the game loop itself does not allocate.
+ */
+public class SelfPlayRunner {
+
+    /** Games played by one task before it stops splitting */
+    private static final int CHUNK_SIZE = 4096;
+
+    /** The shape of the board to play on */
+    private final BoardGeometry geometry;
+
+    /** Creates player 1 (moves first) for each task */
+    private final Supplier<? extends Player> player1;
+
+    /** Creates player 2 for each task */
+    private final Supplier<? extends Player> player2;
+
+    /** Receives every finished game, or null */
+    private GameLogWriter log;
+
+    /**
+     * Creates a new runner.
+     * The suppliers are called once per task, so players need not be thread-safe.
+     *
+     * @param geometry The shape of the board to play on
+     * @param player1 Creates the first player (goes first)
+     * @param player2 Creates the second player
+     */
+    public SelfPlayRunner(BoardGeometry geometry, Supplier<? extends Player> player1, Supplier<? extends Player> player2) {
+        this.geometry = geometry;
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+
+    /**
+     * Records every game played from now on.
+     *
+     * @param log The log to append to, or null to stop recording
+     * @return This runner
+     */
+    public SelfPlayRunner recordTo(GameLogWriter log) {
+        this.log = log;
+        return this;
+    }
+
+    /**
+     * Plays the given number of games on all available cores.
+     *
+     * @param games The number of games to play
+     * @return The outcome counts and timing
+     */
+    public SimulationResult run(long games) {
+        return run(games, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Plays the given number of games with the given parallelism.
+     * A parallelism of 1 plays every game on the calling thread.
+     *
+     * @param games The number of games to play
+     * @param parallelism The number of worker threads
+     * @return The outcome counts and timing
+     */
+    public SimulationResult run(long games, int parallelism) {
+        if (parallelism == 1) {
+            long start = System.nanoTime();
+            long[] counts = playChunk(games);
+            return new SimulationResult(counts[0], counts[1], counts[2], System.nanoTime() - start);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            long[] counts = pool.invoke(new PlayTask(0, games));
+            long elapsed = System.nanoTime() - start;
+            return new SimulationResult(counts[0], counts[1], counts[2], elapsed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays a contiguous range of games, splitting it in half until it is small enough.
+     */
+    private class PlayTask extends RecursiveTask<long[]> {
+
+        private final long from;
+        private final long to;
+
+        PlayTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > CHUNK_SIZE) {
+                long mid = (from + to) >>> 1;
+                PlayTask left = new PlayTask(from, mid);
+                left.fork();
+                long[] right = new PlayTask(mid, to).compute();
+                long[] counts = left.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += right[i];
+                }
+                return counts;
+            }
+            return playChunk(to - from);
+        }
+
+    }
+
+    /**
+     * Plays a number of games on one thread, reusing a single game instance.
+     *
+     * @param games The number of games to play
+     * @return Counts of {player 1 wins, draws, player 2 wins}
+     */
+    private long[] playChunk(long games) {
+        TicTacToeGame game = new TicTacToeGame(player1.get(), player2.get(), geometry);
+        if (log != null) {
+            game.observers.add(new GameRecorder(log, game));
+        }
+        long[] counts = new long[3];
+
+        for (long i = 0; i < games; i++) {
+            game.reset();
+
+            while (!game.gameOver) {
+                Player current = game.getCurrentPlayer();
+                if (!game.makeMove(GameMetrics.chooseMove(current, game))) {
+                    throw new IllegalStateException(current + " made an invalid move");
+                }
+            }
+
+            if (game.winner == game.player1) {
+                counts[0]++;
+            } else if (game.winner == null) {
+                counts[1]++;
+            } else {
+                counts[2]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Runs a simulation from the command line and prints the result and the game metrics.
+     * Arguments: {@code games player1Type player2Type [rows cols winLength]},
+     * e.g. {@code 1000000 NEGAMAX COMPUTER}. Set {@code -Dtictactoe.log=<file>} to record every game.
+     *
+     * @param args The command line arguments
+     * @throws IOException if the game log cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        long games = (args.length > 0) ? Long.parseLong(args[0]) : 1_000_000;
+        PlayerType type1 = (args.length > 1) ? PlayerType.valueOf(args[1]) : PlayerType.COMPUTER;
+        PlayerType type2 = (args.length > 2) ? PlayerType.valueOf(args[2]) : PlayerType.COMPUTER;
+        BoardGeometry geometry = (args.length > 5)
+                ? BoardGeometry.of(Integer.parseInt(args[3]), Integer.parseInt(args[4]), Integer.parseInt(args[5]))
+                : BoardGeometry.STANDARD;
+
+        SelfPlayRunner runner = new SelfPlayRunner(geometry,
+                () -> PlayerFactory.createPlayer(type1, Symbol.X, type1.name()),
+                () -> PlayerFactory.createPlayer(type2, Symbol.O, type2.name()));
+
+        String logPath = System.getProperty("tictactoe.log");
+        GameLogWriter log = (logPath != null) ? GameLogWriter.open(Path.of(logPath), geometry) : null;
+        runner.recordTo(log);
+
+        System.out.println(type1 + " vs " + type2 + " on " + geometry);
+        System.out.println(runner.run(games));
+        System.out.println();
+        new TextExporter(System.out).export(MetricsRegistry.shared());
+        if (log != null) {
+            log.close();
+            System.out.println("Recorded " + log.getWritten() + " games to " + logPath);
+        }
+    }
+
+}
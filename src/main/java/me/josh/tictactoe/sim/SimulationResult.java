@@ -0,0 +1,64 @@
+package me.josh.tictactoe.sim;
+
+/**
+ * Outcome counts of a batch of simulated games, from player 1's point of view.
+ */
+public final class SimulationResult {
+
+    /** Games won by player 1 */
+    public final long wins;
+
+    /** Games that ended in a draw */
+    public final long draws;
+
+    /** Games won by player 2 */
+    public final long losses;
+
+    /** Wall-clock time taken to play all games, in nanoseconds */
+    public final long elapsedNanos;
+
+    /**
+     * Creates a new result.
+     *
+     * @param wins Games won by player 1
+     * @param draws Games that ended in a draw
+     * @param losses Games won by player 2
+     * @param elapsedNanos Wall-clock time taken, in nanoseconds
+     */
+    public SimulationResult(long wins, long draws, long losses, long elapsedNanos) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the total number of games played.
+     *
+     * @return wins + draws + losses
+     */
+    public long games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Gets the throughput of the run.
+     *
+     * @return Games completed per second of wall-clock time
+     */
+    public double gamesPerSecond() {
+        return (elapsedNanos == 0) ? 0 : games() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Returns a one-line summary of this result.
+     *
+     * @return e.g. "1000000 games: 585000 wins, 127000 draws, 288000 losses (2500000 games/s)"
+     */
+    @Override
+    public String toString() {
+        return String.format("%d games: %d wins, %d draws, %d losses (%.0f games/s)",
+                games(), wins, draws, losses, gamesPerSecond());
+    }
+
+}
@@ -4,81 +4,317 @@ import me.josh.tictactoe.model.Symbol;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * Panel displaying the 3x3 Tic Tac Toe game board.
- * Contains 9 buttons arranged in a grid layout.
+ * Panel displaying the Tic Tac Toe game board.<br>
+ * The whole board is one custom-painted component, so it stays fast from the classic 3x3
+ * board up to boards with tens of thousands of cells:
+ * <ul>
+ * <li>X and O are rendered once per cell size into cached images and copied into each cell</li>
+ * <li>a move repaints only its own cell, and a paint only visits the cells inside its clip</li>
+ * <li>clicks are mapped to cells arithmetically and reported to {@link CellClickListener}s</li>
+ * </ul>
+ * Cells are square and the board is centred in the panel.
  */
 public class BoardPanel extends JPanel {
 
-    /** The 9 buttons representing the board cells */
-    private final JButton[][] buttons;
+    /**
+     * Receives clicks on board cells.
+     */
+    @FunctionalInterface
+    public interface CellClickListener {
+
+        /**
+         * Called when an empty cell is clicked while the board is enabled.
+         *
+         * @param row The row that was clicked
+         * @param col The column that was clicked
+         */
+        void cellClicked(int row, int col);
+
+    }
+
+    private static final Color BACKGROUND = new Color(0xF4F4F4);
+    private static final Color DISABLED_BACKGROUND = new Color(0xE4E4E4);
+    private static final Color GRID = new Color(0x9E9E9E);
+    private static final Color X_COLOR = new Color(0x1A3C8C);
+    private static final Color O_COLOR = new Color(0x9C2020);
+
+    /** Smallest cell side in pixels, so huge boards still get a clickable cell */
+    private static final int MIN_CELL_SIZE = 4;
+
+    /** The number of rows on the board */
+    private final int rows;
+
+    /** The number of columns on the board */
+    private final int cols;
+
+    /** The symbol in each cell, by index row * cols + col */
+    private final Symbol[] cells;
+
+    private final List<CellClickListener> listeners = new ArrayList<>();
+
+    /** Whether clicks on empty cells are reported */
+    private boolean accepting = true;
+
+    /** Cell side and board origin for the current size, recomputed by {@link #updateLayout()} */
+    private int cellSize;
+    private int originX;
+    private int originY;
+    private int lineWidth;
+
+    /** Glyph images for the current cell size and screen scale, or null until first painted */
+    private BufferedImage xGlyph;
+    private BufferedImage oGlyph;
+    private int glyphPixels;
+
+    /** The cell where the mouse was pressed, or -1 */
+    private int pressedCell = -1;
 
     /**
-     * Creates a new board panel with a 3x3 grid of buttons.
+     * Creates a new board panel for the classic 3x3 board.
      */
     public BoardPanel() {
-        setLayout(new GridLayout(3, 3, 5, 5)); // 3x3 grid with 5px gaps
+        this(3, 3);
+    }
 
-        buttons = new JButton[3][3];
+    /**
+     * Creates a new board panel of the given size.
+     *
+     * @param rows The number of rows
+     * @param cols The number of columns
+     */
+    public BoardPanel(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new Symbol[rows * cols];
+        Arrays.fill(cells, Symbol.EMPTY);
 
-        // Create all 9 buttons
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                JButton button = new JButton();
-                button.setFont(new Font("Arial", Font.BOLD, 48));
-                button.setFocusPainted(false);
+        setOpaque(true);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                pressedCell = SwingUtilities.isLeftMouseButton(e) ? cellAt(e.getX(), e.getY()) : -1;
+            }
 
-                buttons[row][col] = button;
-                add(button);
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                // Like a button, a click counts only if released over the cell it was pressed on
+                int cell = cellAt(e.getX(), e.getY());
+                if (cell >= 0 && cell == pressedCell) {
+                    fireCellClicked(cell);
+                }
+                pressedCell = -1;
             }
-        }
+        });
+    }
+
+    /**
+     * Registers a listener for clicks on empty cells.
+     *
+     * @param listener The listener
+     */
+    public void addCellClickListener(CellClickListener listener) {
+        listeners.add(listener);
     }
 
     /**
-     * Gets the button at a specific position.
+     * Unregisters a cell click listener.
      *
-     * @param row The row (0-2)
-     * @param col The column (0-2)
-     * @return The button at that position
+     * @param listener The listener
      */
-    public JButton getButton(int row, int col) {
-        return buttons[row][col];
+    public void removeCellClickListener(CellClickListener listener) {
+        listeners.remove(listener);
     }
 
     /**
      * Updates a cell to display the given symbol.
      *
-     * @param row The row (0-2)
-     * @param col The column (0-2)
+     * @param row The row (0 to rows - 1)
+     * @param col The column (0 to cols - 1)
      * @param symbol The symbol to display
      */
     public void updateCell(int row, int col, Symbol symbol) {
-        buttons[row][col].setText(symbol.toString());
-        buttons[row][col].setEnabled(false);
+        cells[row * cols + col] = symbol;
+        repaintCell(row, col);
     }
 
     /**
-     * Clears all cells and re-enables all buttons.
+     * Clears one cell so it can be clicked again.
+     *
+     * @param row The row (0 to rows - 1)
+     * @param col The column (0 to cols - 1)
+     */
+    public void clearCell(int row, int col) {
+        updateCell(row, col, Symbol.EMPTY);
+    }
+
+    /**
+     * Makes the empty cells clickable again (used when a finished game is taken back).
+     */
+    public void enableEmpty() {
+        setAccepting(true);
+    }
+
+    /**
+     * Clears all cells and makes them clickable.
      */
     public void reset() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                buttons[row][col].setText("");
-                buttons[row][col].setEnabled(true);
-            }
-        }
+        Arrays.fill(cells, Symbol.EMPTY);
+        accepting = true;
+        repaint();
     }
 
     /**
-     * Disables all buttons (used when game is over).
+     * Stops reporting clicks (used when game is over).
      */
     public void disableAll() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                buttons[row][col].setEnabled(false);
+        setAccepting(false);
+    }
+
+    private void setAccepting(boolean accepting) {
+        if (this.accepting != accepting) {
+            this.accepting = accepting;
+            repaint();
+        }
+    }
+
+    /**
+     * Gets the cell under a point in this panel.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return The cell index, or -1 if the point is outside the board
+     */
+    public int cellAt(int x, int y) {
+        updateLayout();
+        int dx = x - originX;
+        int dy = y - originY;
+        if (dx < 0 || dy < 0) return -1;
+
+        int col = dx / cellSize;
+        int row = dy / cellSize;
+        return (row < rows && col < cols) ? row * cols + col : -1;
+    }
+
+    private void fireCellClicked(int cell) {
+        if (!accepting || cells[cell] != Symbol.EMPTY) return;
+        int row = cell / cols;
+        int col = cell % cols;
+        for (CellClickListener listener : listeners.toArray(new CellClickListener[0])) {
+            listener.cellClicked(row, col);
+        }
+    }
+
+    /**
+     * Asks Swing to repaint just one cell.
+     */
+    private void repaintCell(int row, int col) {
+        updateLayout();
+        repaint(originX + col * cellSize, originY + row * cellSize, cellSize + lineWidth, cellSize + lineWidth);
+    }
+
+    /**
+     * Fits square cells into the current size, centring the board.
+     */
+    private void updateLayout() {
+        int size = Math.max(MIN_CELL_SIZE, Math.min(getWidth() / cols, getHeight() / rows));
+        cellSize = size;
+        lineWidth = (size >= 40) ? 2 : 1;
+        originX = Math.max(0, (getWidth() - size * cols) / 2);
+        originY = Math.max(0, (getHeight() - size * rows) / 2);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        updateLayout();
+        Graphics2D g2 = (Graphics2D) g;
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        g2.setColor(getBackground());
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        // Only the rows and columns the clip touches
+        int firstCol = Math.max(0, (clip.x - originX) / cellSize);
+        int firstRow = Math.max(0, (clip.y - originY) / cellSize);
+        int lastCol = Math.min(cols - 1, (clip.x + clip.width - originX) / cellSize);
+        int lastRow = Math.min(rows - 1, (clip.y + clip.height - originY) / cellSize);
+        if (firstCol > lastCol || firstRow > lastRow) return;
+
+        int left = originX + firstCol * cellSize;
+        int top = originY + firstRow * cellSize;
+        int right = originX + (lastCol + 1) * cellSize;
+        int bottom = originY + (lastRow + 1) * cellSize;
+
+        g2.setColor(accepting ? BACKGROUND : DISABLED_BACKGROUND);
+        g2.fillRect(left, top, right - left, bottom - top);
+
+        // One line per row and column boundary, not one rectangle per cell
+        g2.setColor(GRID);
+        for (int col = firstCol; col <= lastCol + 1; col++) {
+            g2.fillRect(Math.min(originX + col * cellSize, originX + cols * cellSize - lineWidth), top, lineWidth, bottom - top);
+        }
+        for (int row = firstRow; row <= lastRow + 1; row++) {
+            g2.fillRect(left, Math.min(originY + row * cellSize, originY + rows * cellSize - lineWidth), right - left, lineWidth);
+        }
+
+        updateGlyphs(g2);
+        int inset = lineWidth;
+        int glyphSize = cellSize - 2 * inset;
+        if (glyphSize <= 0) return;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            int base = row * cols;
+            int y = originY + row * cellSize + inset;
+            for (int col = firstCol; col <= lastCol; col++) {
+                Symbol symbol = cells[base + col];
+                if (symbol == Symbol.EMPTY) continue;
+                BufferedImage glyph = (symbol == Symbol.X) ? xGlyph : oGlyph;
+                g2.drawImage(glyph, originX + col * cellSize + inset, y, glyphSize, glyphSize, null);
             }
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Renders the X and O glyphs again if the cell size or screen scale changed.
+     * Glyphs are drawn at device resolution so they stay sharp on scaled displays.
+     */
+    private void updateGlyphs(Graphics2D g2) {
+        AffineTransform transform = g2.getTransform();
+        double scale = Math.max(1, transform.getScaleX());
+        int pixels = Math.max(1, (int) Math.ceil((cellSize - 2 * lineWidth) * scale));
+        if (pixels == glyphPixels && xGlyph != null) return;
+
+        glyphPixels = pixels;
+        xGlyph = renderGlyph("X", X_COLOR, pixels);
+        oGlyph = renderGlyph("O", O_COLOR, pixels);
+    }
+
+    private static BufferedImage renderGlyph(String text, Color color, int pixels) {
+        BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            g.setFont(new Font("Arial", Font.BOLD, Math.max(1, pixels * 3 / 4)));
+            g.setColor(color);
+
+            FontMetrics metrics = g.getFontMetrics();
+            int x = (pixels - metrics.stringWidth(text)) / 2;
+            int y = (pixels - metrics.getHeight()) / 2 + metrics.getAscent();
+            g.drawString(text, x, y);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+}
@@ -16,16 +16,29 @@ public class GameView extends JFrame {
     public final StatusPanel statusPanel;
 
     /**
-     * Creates the main game window.
+     * Creates the main game window for the classic 3x3 board.
      */
     public GameView() {
+        this(3, 3);
+    }
+
+    /**
+     * Creates the main game window for a board of the given size.
+     *
+     * @param rows The number of rows
+     * @param cols The number of columns
+     */
+    public GameView(int rows, int cols) {
         setTitle("Tic Tac Toe");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(400, 500);
-        setResizable(false);
+
+        // Classic board keeps its original size; larger boards get a bigger, resizable window
+        boolean large = Math.max(rows, cols) > 3;
+        setSize(large ? 800 : 400, large ? 900 : 500);
+        setResizable(large);
 
         // Create panels
-        boardPanel = new BoardPanel();
+        boardPanel = new BoardPanel(rows, cols);
         statusPanel = new StatusPanel();
 
         // Set up layout using GridBagLayout
@@ -5,7 +5,7 @@ import java.awt.*;
 
 /**
  * Panel displaying game status information and controls.
- * Shows whose turn it is, game results, and provides a reset button.
+ * Shows whose turn it is, game results, and provides reset, undo and redo buttons.
  */
 public class StatusPanel extends JPanel {
 
@@ -15,6 +15,12 @@ public class StatusPanel extends JPanel {
     /** Button to start a new game */
     public final JButton newGameButton;
 
+    /** Button to take back the last move */
+    public final JButton undoButton;
+
+    /** Button to replay an undone move */
+    public final JButton redoButton;
+
     /**
      * Creates a new status panel.
      */
@@ -25,9 +31,15 @@ public class StatusPanel extends JPanel {
         statusLabel.setFont(new Font("Arial", Font.BOLD, 16));
 
         newGameButton = new JButton("New Game");
+        undoButton = new JButton("Undo");
+        redoButton = new JButton("Redo");
+        undoButton.setEnabled(false);
+        redoButton.setEnabled(false);
 
         add(statusLabel);
         add(newGameButton);
+        add(undoButton);
+        add(redoButton);
     }
 
     /**